@@ -0,0 +1,123 @@
+package my.love.mother.AppWebFlux.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class AnimeCache implements MeterBinder {
+    private final AnimeProperties.Cache properties;
+    private final AsyncCache<Long, Anime> entries;
+    private final Cache<Long, Boolean> misses;
+    // bumped by every put and evict; a load that started before one may have read the row before it was written
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AnimeCache(AnimeProperties animeProperties) {
+        this.properties = animeProperties.getCache();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getNegativeTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    public Mono<Anime> get(long id, Function<Long, Mono<Anime>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(id);
+        }
+        return Mono.defer(() -> {
+            if (misses.getIfPresent(id) != null) {
+                return Mono.empty();
+            }
+            long generation = invalidations.get();
+            // loads are shared between callers, so a cancelled subscriber must not cancel the cached future
+            CompletableFuture<Anime> load = entries.get(id, (key, executor) -> loader.apply(key).toFuture());
+            return Mono.fromFuture(load.thenApply(Function.identity()))
+                    .switchIfEmpty(Mono.fromRunnable(() -> recordMiss(id, generation)));
+        });
+    }
+
+    public Mono<Map<Long, Anime>> getAll(Collection<Long> ids, Function<List<Long>, Flux<Anime>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(new ArrayList<>(ids)).collectMap(Anime::getId);
+        }
+        return Mono.defer(() -> {
+            List<Long> candidates = ids.stream()
+                    .filter(id -> misses.getIfPresent(id) == null)
+                    .collect(Collectors.toList());
+            long generation = invalidations.get();
+            CompletableFuture<Map<Long, Anime>> load = entries.getAll(candidates, (keys, executor) -> {
+                List<Long> absent = new ArrayList<>();
+                keys.forEach(absent::add);
+                return loader.apply(absent).collectMap(Anime::getId).toFuture();
+            });
+            return Mono.fromFuture(load.thenApply(Function.identity()))
+                    .doOnNext(found -> candidates.stream()
+                            .filter(id -> !found.containsKey(id))
+                            .forEach(id -> recordMiss(id, generation)));
+        });
+    }
+
+    public void put(Anime anime) {
+        if (properties.isEnabled() && anime.getId() != null) {
+            entries.put(anime.getId(), CompletableFuture.completedFuture(anime));
+            invalidations.incrementAndGet();
+            misses.invalidate(anime.getId());
+        }
+    }
+
+    public void evict(long id) {
+        // after the entry is gone, so a lookup that sees the new generation cannot join the old load
+        entries.synchronous().invalidate(id);
+        invalidations.incrementAndGet();
+        misses.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        entries.synchronous().invalidateAll();
+        invalidations.incrementAndGet();
+        misses.invalidateAll();
+    }
+
+    /**
+     * Remembers a missing anime unless a put or evict ran since its load began: the load may have read the table
+     * before that write and would hide the anime until the negative entry expires.
+     */
+    private void recordMiss(long id, long generation) {
+        if (invalidations.get() == generation) {
+            misses.put(id, Boolean.TRUE);
+            // an invalidation between the check and the put has already cleared misses
+            if (invalidations.get() != generation) {
+                misses.invalidate(id);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "anime.findById");
+        CaffeineCacheMetrics.monitor(registry, misses, "anime.findById.negative");
+    }
+}
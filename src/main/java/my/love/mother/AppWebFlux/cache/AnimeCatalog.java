@@ -0,0 +1,320 @@
+package my.love.mother.AppWebFlux.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Optional in-memory copy of the anime table that serves {@code findAll} and {@code findById} without a database
+ * round trip. Writes made through {@code AnimeService} are applied as deltas right after they succeed. Every
+ * reconcile interval the rows whose version is above the snapshot's highest one are fetched from the {@link Source}
+ * given to {@link #start}, which picks up inserts and updates from other instances with an index range scan. Less
+ * often the snapshot's count and version sum are compared with the table's; only a mismatch (a delete elsewhere,
+ * a transaction that committed out of version order) or a failed batch write reloads the whole table. Deltas that
+ * land while a fetch is running are replayed on top of its result. Deltas only copy the snapshot's small overlay;
+ * each refresh merges it into the base on a parallel worker, earlier once the overlay outgrows
+ * {@value #OVERLAY_LIMIT} entries.
+ */
+@Slf4j
+@Component
+public class AnimeCatalog implements MeterBinder, DisposableBean {
+    static final int OVERLAY_LIMIT = 4096;
+
+    private final AnimeProperties.Catalog properties;
+    private final Sinks.Many<Boolean> reconcileRequests = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicLong deltas = new AtomicLong();
+    private final AtomicLong reconciled = new AtomicLong();
+    private final AtomicLong failedReconciliations = new AtomicLong();
+    private final AtomicLong refreshed = new AtomicLong();
+    private volatile AnimeCatalogSnapshot snapshot;
+    private volatile long verifiedAt;
+    private List<UnaryOperator<AnimeCatalogSnapshot>> pending;
+    private boolean compactionRequested;
+    private Disposable reconciliation;
+
+    public AnimeCatalog(AnimeProperties animeProperties) {
+        this.properties = animeProperties.getCatalog();
+    }
+
+    /**
+     * Loads the catalog and keeps reconciling it with {@code source}.
+     */
+    public void start(Source source) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        reconciliation = Flux.merge(Flux.interval(properties.getReconcileInterval()).map(tick -> Boolean.FALSE),
+                        reconcileRequests.asFlux())
+                .startWith(Boolean.TRUE)
+                .onBackpressureDrop()
+                .concatMap(reload -> reconcile(source, reload).onErrorResume(error -> {
+                    log.warn("Anime catalog reconciliation failed: {}", error.toString());
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+    }
+
+    /**
+     * True once the first load has completed; until then callers keep reading from the database.
+     */
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    public Flux<Anime> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(snapshot));
+    }
+
+    public Mono<Anime> findById(long id) {
+        return Mono.fromSupplier(() -> snapshot.find(id));
+    }
+
+    /**
+     * Current version of the whole catalog, empty while a delta without a version has not been reconciled yet.
+     */
+    public Mono<AnimeCollectionVersion> findCollectionVersion() {
+        return Mono.fromSupplier(() -> snapshot.collectionVersion());
+    }
+
+    public void upsert(Anime anime) {
+        if (anime.getId() != null) {
+            NavigableMap<Long, Anime> changes = new TreeMap<>();
+            changes.put(anime.getId(), anime);
+            apply(current -> current.withChanges(changes));
+        }
+    }
+
+    public void upsertAll(Collection<Anime> animeList) {
+        NavigableMap<Long, Anime> changes = new TreeMap<>();
+        animeList.forEach(anime -> changes.put(anime.getId(), anime));
+        apply(current -> current.withChanges(changes));
+    }
+
+    public void remove(long id) {
+        removeAll(Collections.singletonList(id));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        NavigableMap<Long, Anime> changes = new TreeMap<>();
+        ids.forEach(id -> changes.put(id, null));
+        apply(current -> current.withChanges(changes));
+    }
+
+    public void removeByNamePrefix(String prefix) {
+        apply(current -> current.withoutNamePrefix(prefix));
+    }
+
+    /**
+     * Asks for a full reload outside the regular schedule, e.g. after a batch write failed halfway.
+     */
+    public void requestReconcile() {
+        if (properties.isEnabled()) {
+            reconcileRequests.tryEmitNext(Boolean.TRUE);
+        }
+    }
+
+    private synchronized void apply(UnaryOperator<AnimeCatalogSnapshot> delta) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        deltas.incrementAndGet();
+        if (snapshot != null) {
+            snapshot = delta.apply(snapshot);
+            if (snapshot.overlaySize() > OVERLAY_LIMIT && pending == null && !compactionRequested) {
+                compactionRequested = true;
+                reconcileRequests.tryEmitNext(Boolean.FALSE);
+            }
+        }
+        if (pending != null) {
+            pending.add(delta);
+        }
+    }
+
+    Mono<Void> reconcile(Source source, boolean reload) {
+        if (reload || snapshot == null) {
+            return reconcile(source.findAll()).doOnSuccess(done -> verifiedAt = System.nanoTime());
+        }
+        return refresh(source).then(Mono.defer(() ->
+                System.nanoTime() - verifiedAt < properties.getVerifyInterval().toNanos() ? Mono.empty() : verify(source)));
+    }
+
+    /**
+     * Applies the rows changed since the snapshot's highest version, and reads the entries of unknown version again
+     * by id: a write that kept the row's version is not among the changed rows.
+     */
+    Mono<Void> refresh(Source source) {
+        return Mono.defer(() -> {
+                    AnimeCatalogSnapshot start = beginRefresh();
+                    List<Long> unknownIds = start.unknownIds();
+                    Flux<Anime> unknown = unknownIds.isEmpty() ? Flux.empty() : source.findAllById(unknownIds);
+                    return Flux.concat(unknown, source.findChangedSince(start.maxVersion()))
+                            .collect(() -> removals(unknownIds), (changes, anime) -> changes.put(anime.getId(), anime))
+                            // the merge copies every entry; keep it off the driver's event loop
+                            .publishOn(Schedulers.parallel())
+                            .map(changes -> start.withChanges(changes).compacted());
+                })
+                .doOnNext(this::finishRefresh)
+                .doOnError(error -> abortReload())
+                .doOnCancel(this::abortReload)
+                .then();
+    }
+
+    /**
+     * Reloads the table when the snapshot no longer has its count and version sum. Skipped while entries of unknown
+     * version wait for the next refresh to read them again, or when a delta lands during the check.
+     */
+    Mono<Void> verify(Source source) {
+        return Mono.defer(() -> {
+            long deltasBefore = deltas.get();
+            return source.findCollectionVersion().flatMap(expected -> {
+                AnimeCollectionVersion actual = snapshot.collectionVersion();
+                if (actual == null || deltas.get() != deltasBefore) {
+                    return Mono.empty();
+                }
+                verifiedAt = System.nanoTime();
+                if (actual.equals(expected)) {
+                    return Mono.empty();
+                }
+                log.info("Anime catalog has {} but the table has {}, reloading", actual, expected);
+                return reconcile(source.findAll());
+            });
+        });
+    }
+
+    /**
+     * Reloads the whole table; {@code source} must emit every anime in ascending id order.
+     */
+    Mono<Void> reconcile(Flux<Anime> source) {
+        return Mono.defer(() -> {
+                    beginReload();
+                    return source.reduce(AnimeCatalogSnapshot.builder(), AnimeCatalogSnapshot.Builder::add)
+                            .map(AnimeCatalogSnapshot.Builder::build);
+                })
+                .doOnNext(this::finishReload)
+                .doOnError(error -> abortReload())
+                .doOnCancel(this::abortReload)
+                .then();
+    }
+
+    private synchronized void beginReload() {
+        pending = new ArrayList<>();
+        compactionRequested = false;
+    }
+
+    private synchronized AnimeCatalogSnapshot beginRefresh() {
+        pending = new ArrayList<>();
+        compactionRequested = false;
+        return snapshot;
+    }
+
+    // an entry of unknown version that is not found again was deleted
+    private static NavigableMap<Long, Anime> removals(List<Long> ids) {
+        NavigableMap<Long, Anime> changes = new TreeMap<>();
+        ids.forEach(id -> changes.put(id, null));
+        return changes;
+    }
+
+    private synchronized void finishRefresh(AnimeCatalogSnapshot merged) {
+        // deltas recorded during the fetch and merge may be newer than the fetched rows
+        AnimeCatalogSnapshot current = merged;
+        for (UnaryOperator<AnimeCatalogSnapshot> delta : pending) {
+            current = delta.apply(current);
+        }
+        snapshot = current;
+        pending = null;
+        refreshed.incrementAndGet();
+    }
+
+    private synchronized void finishReload(AnimeCatalogSnapshot loaded) {
+        AnimeCatalogSnapshot current = loaded;
+        for (UnaryOperator<AnimeCatalogSnapshot> delta : pending) {
+            current = delta.apply(current);
+        }
+        if (snapshot == null) {
+            log.info("Anime catalog loaded {} entries, ~{} KiB", current.size(), current.estimatedBytes() / 1024);
+        }
+        snapshot = current;
+        pending = null;
+        reconciled.incrementAndGet();
+    }
+
+    private synchronized void abortReload() {
+        if (pending != null) {
+            pending = null;
+            failedReconciliations.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reconciliation != null) {
+            reconciliation.dispose();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("anime.catalog.size", this, catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.size())
+                .description("Entries in the in-memory anime catalog")
+                .register(registry);
+        Gauge.builder("anime.catalog.memory", this, catalog -> catalog.snapshot == null ? 0 : catalog.snapshot.estimatedBytes())
+                .description("Estimated heap retained by the in-memory anime catalog")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("anime.catalog.deltas", deltas, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("anime.catalog.reconciliations", reconciled, AtomicLong::get)
+                .tag("outcome", "success")
+                .register(registry);
+        FunctionCounter.builder("anime.catalog.reconciliations", failedReconciliations, AtomicLong::get)
+                .tag("outcome", "failure")
+                .register(registry);
+        FunctionCounter.builder("anime.catalog.refreshes", refreshed, AtomicLong::get)
+                .description("Incremental fetches of rows changed since the snapshot's highest version")
+                .register(registry);
+    }
+
+    /**
+     * Where the catalog reads the table from. Reads should go to the primary: a lagging replica would undo deltas
+     * applied just before a fetch.
+     */
+    public interface Source {
+        /**
+         * Every anime in ascending id order.
+         */
+        Flux<Anime> findAll();
+
+        /**
+         * Every anime whose version is greater than {@code version}.
+         */
+        Flux<Anime> findChangedSince(long version);
+
+        /**
+         * The anime with the given ids that still exist, in any order.
+         */
+        Flux<Anime> findAllById(List<Long> ids);
+
+        Mono<AnimeCollectionVersion> findCollectionVersion();
+    }
+}
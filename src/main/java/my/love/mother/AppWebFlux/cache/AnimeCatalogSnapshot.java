@@ -0,0 +1,419 @@
+package my.love.mother.AppWebFlux.cache;
+
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of the anime table. The bulk of it is a base with ids in ascending order in a {@code long[]} and
+ * the names, versions and update times in parallel arrays, so an entry costs three primitive slots and a name
+ * instead of an {@link Anime}, a boxed id and a hash map node. Changes go to a small overlay sorted by id that new
+ * snapshots share the base with, so a write copies the overlay rather than the table; {@link #compacted()} merges
+ * the overlay into a new base. Lookups are binary searches. A version of {@code 0} marks an entry written by a
+ * delta that did not know it; it stays unknown until a refresh reads the row again or the table is reloaded.
+ */
+final class AnimeCatalogSnapshot implements Iterable<Anime> {
+    static final AnimeCatalogSnapshot EMPTY = new Builder(1).build();
+
+    private static final long UNKNOWN = 0;
+    private static final long[] NO_IDS = new long[0];
+    private static final Anime[] NO_ANIME = new Anime[0];
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int STRING_BYTES = 24;
+    private static final int REFERENCE_BYTES = 4;
+    // an Anime with its boxed id and version and its Instant
+    private static final int ANIME_BYTES = 32 + 16 + 16 + 24;
+
+    private final Base base;
+    // written since the base was built, ascending by id; a null value hides the base entry with that id
+    private final long[] overlayIds;
+    private final Anime[] overlay;
+    private final int size;
+    private final long versionSum;
+    private final long maxVersion;
+    private final int unknownVersions;
+
+    private AnimeCatalogSnapshot(Base base) {
+        this.base = base;
+        this.overlayIds = NO_IDS;
+        this.overlay = NO_ANIME;
+        long sum = 0;
+        long max = 0;
+        int unknown = 0;
+        for (int index = 0; index < base.size; index++) {
+            sum += base.versions[index];
+            max = Math.max(max, base.versions[index]);
+            if (base.versions[index] == UNKNOWN) {
+                unknown++;
+            }
+        }
+        this.size = base.size;
+        this.versionSum = sum;
+        this.maxVersion = max;
+        this.unknownVersions = unknown;
+    }
+
+    private AnimeCatalogSnapshot(Base base, long[] overlayIds, Anime[] overlay, int size, long versionSum,
+                                 long maxVersion, int unknownVersions) {
+        this.base = base;
+        this.overlayIds = overlayIds;
+        this.overlay = overlay;
+        this.size = size;
+        this.versionSum = versionSum;
+        this.maxVersion = maxVersion;
+        this.unknownVersions = unknownVersions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Entries in the overlay, i.e. written since the base was built.
+     */
+    int overlaySize() {
+        return overlayIds.length;
+    }
+
+    Anime find(long id) {
+        int index = Arrays.binarySearch(overlayIds, id);
+        if (index >= 0) {
+            return copyOf(overlay[index]);
+        }
+        index = base.indexOf(id);
+        return index < 0 ? null : base.get(index);
+    }
+
+    @Override
+    public Iterator<Anime> iterator() {
+        return new Iterator<Anime>() {
+            private int baseIndex;
+            private int overlayIndex;
+            private Anime next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Anime next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Anime current = next;
+                next = advance();
+                return current;
+            }
+
+            private Anime advance() {
+                while (baseIndex < base.size || overlayIndex < overlayIds.length) {
+                    if (overlayIndex == overlayIds.length
+                            || (baseIndex < base.size && base.ids[baseIndex] < overlayIds[overlayIndex])) {
+                        return base.get(baseIndex++);
+                    }
+                    if (baseIndex < base.size && base.ids[baseIndex] == overlayIds[overlayIndex]) {
+                        baseIndex++;
+                    }
+                    Anime anime = overlay[overlayIndex++];
+                    if (anime != null) {
+                        return copyOf(anime);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * The same value {@code AnimeRepository.findCollectionVersion} computes, or null while a version is unknown.
+     */
+    AnimeCollectionVersion collectionVersion() {
+        return unknownVersions == 0 ? new AnimeCollectionVersion(size, versionSum) : null;
+    }
+
+    /**
+     * Highest version in the snapshot; rows changed later have a higher one unless their transaction committed
+     * out of version order, which {@link #collectionVersion()} no longer matching the table reveals.
+     */
+    long maxVersion() {
+        return maxVersion;
+    }
+
+    /**
+     * Ids of the entries whose version is unknown.
+     */
+    List<Long> unknownIds() {
+        if (unknownVersions == 0) {
+            return Collections.emptyList();
+        }
+        List<Long> unknown = new ArrayList<>();
+        for (Anime anime : this) {
+            if (versionOf(anime) == UNKNOWN) {
+                unknown.add(anime.getId());
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Applies upserts (non-null values) and removals (null values) to the overlay in a single merge pass.
+     */
+    AnimeCatalogSnapshot withChanges(NavigableMap<Long, Anime> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        long[] mergedIds = new long[overlayIds.length + changes.size()];
+        Anime[] merged = new Anime[mergedIds.length];
+        int mergedSize = 0;
+        int newSize = size;
+        long newVersionSum = versionSum;
+        long newMaxVersion = maxVersion;
+        int newUnknownVersions = unknownVersions;
+        int index = 0;
+        for (Map.Entry<Long, Anime> change : changes.entrySet()) {
+            long id = change.getKey();
+            while (index < overlayIds.length && overlayIds[index] < id) {
+                mergedIds[mergedSize] = overlayIds[index];
+                merged[mergedSize++] = overlay[index++];
+            }
+            int baseIndex = base.indexOf(id);
+            Anime previous;
+            if (index < overlayIds.length && overlayIds[index] == id) {
+                previous = overlay[index++];
+            } else {
+                previous = baseIndex < 0 ? null : base.get(baseIndex);
+            }
+            if (previous != null) {
+                newSize--;
+                newVersionSum -= versionOf(previous);
+                newUnknownVersions -= versionOf(previous) == UNKNOWN ? 1 : 0;
+            }
+            Anime anime = copyOf(change.getValue());
+            if (anime != null) {
+                newSize++;
+                newVersionSum += versionOf(anime);
+                newMaxVersion = Math.max(newMaxVersion, versionOf(anime));
+                newUnknownVersions += versionOf(anime) == UNKNOWN ? 1 : 0;
+            }
+            // a removal of an id the base does not have needs no entry
+            if (anime != null || baseIndex >= 0) {
+                mergedIds[mergedSize] = id;
+                merged[mergedSize++] = anime;
+            }
+        }
+        while (index < overlayIds.length) {
+            mergedIds[mergedSize] = overlayIds[index];
+            merged[mergedSize++] = overlay[index++];
+        }
+        if (mergedSize < mergedIds.length) {
+            mergedIds = Arrays.copyOf(mergedIds, mergedSize);
+            merged = Arrays.copyOf(merged, mergedSize);
+        }
+        return new AnimeCatalogSnapshot(base, mergedIds, merged, newSize, newVersionSum, newMaxVersion, newUnknownVersions);
+    }
+
+    /**
+     * Drops the entries a {@code LIKE 'prefix%'} delete removes; anime without a name never match. Scans the base
+     * without copying it.
+     */
+    AnimeCatalogSnapshot withoutNamePrefix(String prefix) {
+        NavigableMap<Long, Anime> removals = new TreeMap<>();
+        for (int index = 0; index < base.size; index++) {
+            String name = base.names[index];
+            if (name != null && name.startsWith(prefix) && Arrays.binarySearch(overlayIds, base.ids[index]) < 0) {
+                removals.put(base.ids[index], null);
+            }
+        }
+        for (int index = 0; index < overlayIds.length; index++) {
+            Anime anime = overlay[index];
+            if (anime != null && anime.getName() != null && anime.getName().startsWith(prefix)) {
+                removals.put(overlayIds[index], null);
+            }
+        }
+        return withChanges(removals);
+    }
+
+    /**
+     * Merges the overlay into a new base; copies every entry, so callers keep it off request threads.
+     */
+    AnimeCatalogSnapshot compacted() {
+        if (overlayIds.length == 0) {
+            return this;
+        }
+        Builder merged = new Builder(size);
+        int index = 0;
+        for (int overlayIndex = 0; overlayIndex < overlayIds.length; overlayIndex++) {
+            long id = overlayIds[overlayIndex];
+            while (index < base.size && base.ids[index] < id) {
+                merged.copy(base, index++);
+            }
+            if (index < base.size && base.ids[index] == id) {
+                index++;
+            }
+            if (overlay[overlayIndex] != null) {
+                merged.add(overlay[overlayIndex]);
+            }
+        }
+        while (index < base.size) {
+            merged.copy(base, index++);
+        }
+        return merged.build();
+    }
+
+    /**
+     * Retained heap estimate assuming compressed oops and compact strings; computed once per base.
+     */
+    long estimatedBytes() {
+        long bytes = base.estimatedBytes() + align(ARRAY_HEADER_BYTES + 8L * overlayIds.length)
+                + align(ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * overlay.length);
+        for (Anime anime : overlay) {
+            if (anime != null) {
+                bytes += ANIME_BYTES + stringBytes(anime.getName());
+            }
+        }
+        return bytes;
+    }
+
+    // the same entry the base would hold, detached from the caller's instance
+    private static Anime copyOf(Anime anime) {
+        if (anime == null) {
+            return null;
+        }
+        if (versionOf(anime) == UNKNOWN) {
+            return new Anime(anime.getId(), anime.getName());
+        }
+        return new Anime(anime.getId(), anime.getName(), anime.getVersion(), anime.getUpdatedAt());
+    }
+
+    private static long versionOf(Anime anime) {
+        return anime.getVersion() != null && anime.getUpdatedAt() != null ? anime.getVersion() : UNKNOWN;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + align(ARRAY_HEADER_BYTES + (long) value.length() * (isLatin1(value) ? 1 : 2));
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int index = 0; index < value.length(); index++) {
+            if (value.charAt(index) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static Builder builder() {
+        return new Builder(1024);
+    }
+
+    private static final class Base {
+        private final long[] ids;
+        private final String[] names;
+        private final long[] versions;
+        private final long[] updatedAtMillis;
+        private final int size;
+        private volatile long estimatedBytes = -1;
+
+        private Base(long[] ids, String[] names, long[] versions, long[] updatedAtMillis, int size) {
+            this.ids = ids;
+            this.names = names;
+            this.versions = versions;
+            this.updatedAtMillis = updatedAtMillis;
+            this.size = size;
+        }
+
+        private int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private Anime get(int index) {
+            if (versions[index] == UNKNOWN) {
+                return new Anime(ids[index], names[index]);
+            }
+            return new Anime(ids[index], names[index], versions[index], Instant.ofEpochMilli(updatedAtMillis[index]));
+        }
+
+        private long estimatedBytes() {
+            long bytes = estimatedBytes;
+            if (bytes < 0) {
+                bytes = 3 * align(ARRAY_HEADER_BYTES + 8L * ids.length) + align(ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * names.length);
+                for (int index = 0; index < size; index++) {
+                    bytes += stringBytes(names[index]);
+                }
+                estimatedBytes = bytes;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Collects rows that arrive in ascending id order, as the keyset pages of {@code findPageAfter} do.
+     */
+    static final class Builder {
+        private long[] ids;
+        private String[] names;
+        private long[] versions;
+        private long[] updatedAtMillis;
+        private int size;
+
+        private Builder(int capacity) {
+            ids = new long[Math.max(capacity, 1)];
+            names = new String[ids.length];
+            versions = new long[ids.length];
+            updatedAtMillis = new long[ids.length];
+        }
+
+        Builder add(Anime anime) {
+            long version = versionOf(anime);
+            return add(anime.getId(), anime.getName(), version, version == UNKNOWN ? 0 : anime.getUpdatedAt().toEpochMilli());
+        }
+
+        private void copy(Base base, int index) {
+            add(base.ids[index], base.names[index], base.versions[index], base.updatedAtMillis[index]);
+        }
+
+        private Builder add(long id, String name, long version, long updatedAt) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("anime must be added in ascending id order");
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+                updatedAtMillis = Arrays.copyOf(updatedAtMillis, size * 2);
+            }
+            ids[size] = id;
+            names[size] = name;
+            versions[size] = version;
+            updatedAtMillis[size++] = updatedAt;
+            return this;
+        }
+
+        AnimeCatalogSnapshot build() {
+            // merges are sized up front; only a grown or mostly filtered builder is worth trimming
+            if (ids.length - size > ids.length / 8) {
+                ids = Arrays.copyOf(ids, size);
+                names = Arrays.copyOf(names, size);
+                versions = Arrays.copyOf(versions, size);
+                updatedAtMillis = Arrays.copyOf(updatedAtMillis, size);
+            }
+            return new AnimeCatalogSnapshot(new Base(ids, names, versions, updatedAtMillis, size));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package my.love.mother.AppWebFlux.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Encoded JSON of single anime, bounded by total bytes. An entry remembers the name it was encoded from and is
+ * only reused for an anime with the same name, so a write that skipped {@link #evict} (e.g. on another instance)
+ * costs a re-encode, never a stale body.
+ */
+@Component
+public class AnimeJsonCache implements MeterBinder {
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final boolean enabled;
+    private final Cache<Long, Entry> entries;
+
+    public AnimeJsonCache(AnimeProperties animeProperties) {
+        AnimeProperties.JsonCache properties = animeProperties.getJsonCache();
+        this.enabled = properties.isEnabled();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((Long id, Entry entry) -> ENTRY_OVERHEAD_BYTES + entry.json.length)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] get(Anime anime, Function<Anime, byte[]> encoder) {
+        if (!enabled || anime.getId() == null) {
+            return encoder.apply(anime);
+        }
+        Entry entry = entries.getIfPresent(anime.getId());
+        if (entry != null && Objects.equals(entry.name, anime.getName())) {
+            return entry.json;
+        }
+        byte[] json = encoder.apply(anime);
+        entries.put(anime.getId(), new Entry(anime.getName(), json));
+        return json;
+    }
+
+    public void evict(long id) {
+        entries.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "anime.json");
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final byte[] json;
+
+        Entry(String name, byte[] json) {
+            this.name = name;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package my.love.mother.AppWebFlux.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+@Component
+public class InFlightLookups implements MeterBinder {
+    private final ConcurrentMap<Long, Mono<Anime>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public Mono<Anime> get(long id, Function<Long, Mono<Anime>> loader) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<Anime>> self = new AtomicReference<>();
+            // only removes its own entry: after evict a newer lookup may already sit under the same id
+            Mono<Anime> lookup = Mono.defer(() -> loader.apply(id))
+                    .doFinally(signal -> inFlight.remove(id, self.get()))
+                    .share();
+            self.set(lookup);
+            Mono<Anime> running = inFlight.putIfAbsent(id, lookup);
+            if (running == null) {
+                return lookup;
+            }
+            coalesced.incrementAndGet();
+            return running;
+        });
+    }
+
+    /**
+     * Detaches the lookup in flight for {@code id}, so that lookups started after a write run their own query
+     * instead of joining one that may have read the row before the write. Callers already waiting on the old
+     * lookup still get its result.
+     */
+    public void evict(long id) {
+        inFlight.remove(id);
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("anime.findById.coalesced", coalesced, AtomicLong::get)
+                .description("findById calls that joined a lookup already in flight")
+                .register(registry);
+        Gauge.builder("anime.findById.inflight", inFlight, ConcurrentMap::size)
+                .description("distinct ids currently being loaded")
+                .register(registry);
+    }
+}
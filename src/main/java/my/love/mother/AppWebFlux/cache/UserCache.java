@@ -0,0 +1,110 @@
+package my.love.mother.AppWebFlux.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+public class UserCache implements MeterBinder {
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    private final AuthProperties.Cache properties;
+    private final AsyncCache<String, UserDetails> users;
+    private final Cache<String, VerifiedCredentials> credentials;
+    private final SecretKeySpec digestKey;
+
+    public UserCache(AuthProperties authProperties) {
+        this.properties = authProperties.getCache();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        this.credentials = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+        digest("");
+    }
+
+    public Mono<UserDetails> get(String username, Function<String, Mono<UserDetails>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(username);
+        }
+        return Mono.defer(() -> {
+            CompletableFuture<UserDetails> load = users.get(username, (key, executor) -> loader.apply(key).toFuture());
+            return Mono.fromFuture(load.thenApply(Function.identity()));
+        });
+    }
+
+    public Authentication getVerified(String username, String password) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        VerifiedCredentials verified = credentials.getIfPresent(username);
+        if (verified == null || !MessageDigest.isEqual(verified.digest, digest(password))) {
+            return null;
+        }
+        return verified.authentication;
+    }
+
+    public void putVerified(String username, String password, Authentication authentication) {
+        if (properties.isEnabled()) {
+            credentials.put(username, new VerifiedCredentials(digest(password), authentication));
+        }
+    }
+
+    public void evict(String username) {
+        users.synchronous().invalidate(username);
+        credentials.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        users.synchronous().invalidateAll();
+        credentials.invalidateAll();
+    }
+
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("credential digest is not available", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "auth.users");
+        CaffeineCacheMetrics.monitor(registry, credentials, "auth.credentials");
+    }
+
+    @AllArgsConstructor
+    private static class VerifiedCredentials {
+        private final byte[] digest;
+        private final Authentication authentication;
+    }
+}
@@ -0,0 +1,137 @@
+package my.love.mother.AppWebFlux.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link Anime} as JSON or NDJSON from bytes kept in {@link AnimeJsonCache} instead of running Jackson for
+ * every response. A single anime wraps the cached array without copying; arrays and streams copy the cached bytes
+ * into buffers from the response's factory, which are pooled on Netty. The output is byte-for-byte what
+ * {@code Jackson2JsonEncoder} produces with the same {@link ObjectMapper}.
+ */
+public class AnimeJsonEncoder implements HttpMessageEncoder<Anime> {
+    private static final List<MimeType> MIME_TYPES = Collections.unmodifiableList(
+            Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON));
+    private static final int ELEMENTS_PER_BUFFER = 256;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final ObjectMapper objectMapper;
+    private final AnimeJsonCache jsonCache;
+
+    public AnimeJsonEncoder(ObjectMapper objectMapper, AnimeJsonCache jsonCache) {
+        this.objectMapper = objectMapper;
+        this.jsonCache = jsonCache;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return Anime.class == elementType.toClass() && (mimeType == null || isJson(mimeType) || isNdjson(mimeType));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return Collections.singletonList(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends Anime> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream).map(anime -> encodeValue(anime, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        if (mimeType != null && isNdjson(mimeType)) {
+            return Flux.from(inputStream).map(anime -> join(bufferFactory, null, Collections.singletonList(anime), NEWLINE));
+        }
+        return Flux.defer(() -> {
+            boolean[] first = {true};
+            return Flux.from(inputStream)
+                    .buffer(ELEMENTS_PER_BUFFER)
+                    .map(chunk -> {
+                        byte[] prefix = first[0] ? new byte[]{'['} : new byte[]{','};
+                        first[0] = false;
+                        return join(bufferFactory, prefix, chunk, null);
+                    })
+                    .concatWith(Mono.fromCallable(() -> bufferFactory.wrap(first[0] ? new byte[]{'[', ']'} : new byte[]{']'})));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(Anime anime, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        return bufferFactory.wrap(json(anime));
+    }
+
+    /**
+     * Copies the cached JSON of {@code chunk} into one buffer: {@code prefix}, then the elements separated by
+     * commas (or each followed by {@code suffix} when it is set).
+     */
+    private DataBuffer join(DataBufferFactory bufferFactory, byte[] prefix, List<? extends Anime> chunk, byte[] suffix) {
+        byte[][] values = new byte[chunk.size()][];
+        int size = prefix == null ? 0 : prefix.length;
+        for (int index = 0; index < values.length; index++) {
+            values[index] = json(chunk.get(index));
+            size += values[index].length + (suffix == null ? (index == 0 ? 0 : 1) : suffix.length);
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(size);
+        if (prefix != null) {
+            buffer.write(prefix);
+        }
+        for (int index = 0; index < values.length; index++) {
+            if (suffix == null && index > 0) {
+                buffer.write((byte) ',');
+            }
+            buffer.write(values[index]);
+            if (suffix != null) {
+                buffer.write(suffix);
+            }
+        }
+        return buffer;
+    }
+
+    private byte[] json(Anime anime) {
+        return jsonCache.get(anime, this::serialize);
+    }
+
+    private byte[] serialize(Anime anime) {
+        try {
+            return objectMapper.writeValueAsBytes(anime);
+        } catch (JsonProcessingException exception) {
+            throw new EncodingException("JSON encoding error: " + exception.getOriginalMessage(), exception);
+        }
+    }
+
+    private static boolean isJson(MimeType mimeType) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(mimeType) && isUtf8(mimeType);
+    }
+
+    private static boolean isNdjson(MimeType mimeType) {
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType) && isUtf8(mimeType);
+    }
+
+    private static boolean isUtf8(MimeType mimeType) {
+        return mimeType.getCharset() == null || StandardCharsets.UTF_8.equals(mimeType.getCharset());
+    }
+}
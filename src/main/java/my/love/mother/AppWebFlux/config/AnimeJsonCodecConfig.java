@@ -0,0 +1,19 @@
+package my.love.mother.AppWebFlux.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.codec.AnimeJsonEncoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "anime.json-cache", name = "enabled", havingValue = "true")
+public class AnimeJsonCodecConfig {
+    @Bean
+    CodecCustomizer animeJsonCodecCustomizer(ObjectMapper objectMapper, AnimeJsonCache jsonCache) {
+        // custom codecs are consulted before the default Jackson encoder
+        return configurer -> configurer.customCodecs().register(new AnimeJsonEncoder(objectMapper, jsonCache));
+    }
+}
@@ -0,0 +1,60 @@
+package my.love.mother.AppWebFlux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "anime")
+public class AnimeProperties {
+    private Page page = new Page();
+    private Batch batch = new Batch();
+    private Cache cache = new Cache();
+    private Search search = new Search();
+    private Catalog catalog = new Catalog();
+    private JsonCache jsonCache = new JsonCache();
+
+    @Data
+    public static class Page {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class Batch {
+        // rows per INSERT statement; Postgres allows at most 65535 bind parameters in one
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Search {
+        private int minSubstringLength = 3;
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration negativeTimeToLive = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Catalog {
+        private boolean enabled = false;
+        // how often rows with a newer version are fetched
+        private Duration reconcileInterval = Duration.ofSeconds(30);
+        // how often the snapshot is compared with the table's count and version sum, which scans the version index
+        private Duration verifyInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class JsonCache {
+        private boolean enabled = false;
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+    }
+}
@@ -0,0 +1,39 @@
+package my.love.mother.AppWebFlux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+    private Cache cache = new Cache();
+    private Token token = new Token();
+    private Hashing hashing = new Hashing();
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Token {
+        private Duration timeToLive = Duration.ofMinutes(15);
+        private String activeKey;
+        private Map<String, String> keys = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Hashing {
+        private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueCapacity = 64;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,14 @@
+package my.love.mother.AppWebFlux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "observability")
+public class ObservabilityProperties {
+    private double logSampleRate = 0.0;
+    private double sqlSampleRate = 0.0;
+    private double timingSampleRate = 0.0;
+}
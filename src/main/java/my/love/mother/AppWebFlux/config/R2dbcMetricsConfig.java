@@ -0,0 +1,27 @@
+package my.love.mother.AppWebFlux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import my.love.mother.AppWebFlux.metrics.R2dbcMetricsListener;
+import my.love.mother.AppWebFlux.routing.ReplicaRoutingConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class R2dbcMetricsConfig {
+    @Bean
+    static BeanPostProcessor queryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                                       ObjectProvider<ObservabilityProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory) || bean instanceof ReplicaRoutingConnectionFactory) {
+                    return bean;
+                }
+                return R2dbcMetricsListener.instrument((ConnectionFactory) bean, registry.getObject(), properties.getObject());
+            }
+        };
+    }
+}
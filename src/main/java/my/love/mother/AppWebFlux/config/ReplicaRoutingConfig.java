@@ -0,0 +1,69 @@
+package my.love.mother.AppWebFlux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import my.love.mother.AppWebFlux.metrics.R2dbcMetricsListener;
+import my.love.mother.AppWebFlux.routing.ReplicaRoutingConnectionFactory;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    @Bean
+    ReplicaRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+                                                      ReplicaProperties replicaProperties,
+                                                      MeterRegistry registry,
+                                                      ObservabilityProperties observability) {
+        ConnectionFactory primary = pool("primary", r2dbcProperties.getUrl(), r2dbcProperties.getUsername(),
+                r2dbcProperties.getPassword(), r2dbcProperties.getPool(), registry, observability);
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        List<String> urls = replicaProperties.getUrls();
+        for (int index = 0; index < urls.size(); index++) {
+            String name = "replica-" + (index + 1);
+            replicas.put(name, pool(name, urls.get(index),
+                    StringUtils.hasText(replicaProperties.getUsername()) ? replicaProperties.getUsername() : r2dbcProperties.getUsername(),
+                    StringUtils.hasText(replicaProperties.getPassword()) ? replicaProperties.getPassword() : r2dbcProperties.getPassword(),
+                    r2dbcProperties.getPool(), registry, observability));
+        }
+        ReplicaRoutingConnectionFactory connectionFactory = new ReplicaRoutingConnectionFactory(primary, replicas, replicaProperties);
+        connectionFactory.registerMetrics(registry);
+        return connectionFactory;
+    }
+
+    private static ConnectionFactory pool(String name, String url, String username, String password,
+                                          R2dbcProperties.Pool properties, MeterRegistry registry,
+                                          ObservabilityProperties observability) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(name)
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .validationDepth(properties.getValidationDepth());
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(properties.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(properties.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(properties.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(properties.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(properties.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        ConnectionPool connectionPool = new ConnectionPool(builder.build());
+        new ConnectionPoolMetrics(connectionPool, name, Tags.empty()).bindTo(registry);
+        return R2dbcMetricsListener.instrument(connectionPool, registry, observability);
+    }
+}
@@ -1,5 +1,12 @@
 package my.love.mother.AppWebFlux.config;
 
+import my.love.mother.AppWebFlux.cache.UserCache;
+import my.love.mother.AppWebFlux.metrics.ReactiveMetrics;
+import my.love.mother.AppWebFlux.security.CachingAuthenticationManager;
+import my.love.mother.AppWebFlux.security.KeyRotatingJwtDecoder;
+import my.love.mother.AppWebFlux.security.PasswordHashingExecutor;
+import my.love.mother.AppWebFlux.security.TokenKeys;
+import my.love.mother.AppWebFlux.security.TokenService;
 import my.love.mother.AppWebFlux.service.UserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
@@ -8,6 +15,10 @@ import org.springframework.security.authentication.UserDetailsRepositoryReactive
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
 @EnableWebFluxSecurity
@@ -27,6 +38,10 @@ public class SecurityConfig {
                 .hasRole("ADMIN")
                 .pathMatchers(HttpMethod.GET, "/anime/")
                 .hasRole("ADMIN")
+                .pathMatchers("/actuator/health")
+                .permitAll()
+                .pathMatchers("/actuator/**")
+                .hasRole("ADMIN")
                 .pathMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/webjars/**")
                 .permitAll()
                 .anyExchange()
@@ -36,11 +51,38 @@ public class SecurityConfig {
                 .and()
                 .httpBasic()
                 .and()
+                .oauth2ResourceServer()
+                .jwt()
+                .jwtAuthenticationConverter(jwtAuthenticationConverter())
+                .and()
+                .and()
                 .build();
     }
 
     @Bean
-    ReactiveAuthenticationManager authenticationManager(UserService userService) {
-        return new UserDetailsRepositoryReactiveAuthenticationManager(userService);
+    ReactiveAuthenticationManager authenticationManager(UserService userService, UserCache userCache,
+                                                        PasswordHashingExecutor passwordHashing,
+                                                        ReactiveMetrics metrics) {
+        UserDetailsRepositoryReactiveAuthenticationManager passwordManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userService);
+        passwordManager.setScheduler(passwordHashing.getScheduler());
+        passwordManager.setPasswordEncoder(passwordHashing.getPasswordEncoder());
+        ReactiveAuthenticationManager manager =
+                new CachingAuthenticationManager(passwordHashing.admit(passwordManager), userCache);
+        return authentication -> metrics.timed("auth.authenticate", "password", manager.authenticate(authentication));
+    }
+
+    @Bean
+    ReactiveJwtDecoder jwtDecoder(TokenKeys tokenKeys) {
+        return new KeyRotatingJwtDecoder(tokenKeys);
+    }
+
+    private ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(TokenService.ROLES_CLAIM);
+        authoritiesConverter.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
     }
 }
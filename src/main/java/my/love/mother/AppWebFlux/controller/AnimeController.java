@@ -7,8 +7,13 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.BatchDeleteResult;
+import my.love.mother.AppWebFlux.domain.BatchSaveResult;
+import my.love.mother.AppWebFlux.domain.BulkFetchResult;
 import my.love.mother.AppWebFlux.service.AnimeService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -32,20 +37,65 @@ public class AnimeController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "List all animes",
+    @Operation(summary = "List all animes; answers If-None-Match with 304 while the collection is unchanged",
             security = @SecurityRequirement(name = "Basic Authentication"),
             tags = {"anime"})
-    public Flux<Anime> listAll() {
-        return animeService.findAll();
+    public Mono<ResponseEntity<Flux<Anime>>> listAll() {
+        // deletes leave no update time behind, so the list only carries an ETag
+        return animeService.findAllWithVersion((version, animeList) -> version == null
+                ? ResponseEntity.ok().body(animeList)
+                : ResponseEntity.ok().eTag(version.getCount() + "-" + version.getVersionSum()).body(animeList));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream all animes as they are read, page by page",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Flux<Anime> streamAll() {
+        return animeService.streamAll();
+    }
+
+    @GetMapping(params = "after")
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List animes with id greater than 'after', ordered by id",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Flux<Anime> listPage(@RequestParam long after, @RequestParam(required = false) Integer limit) {
+        return animeService.findPage(after, limit);
+    }
+
+    @GetMapping(path = "search")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Find animes whose name contains 'q' (or starts with it when prefix=true), ignoring case, "
+            + "ordered by id after 'after'; streams with Accept: application/x-ndjson",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Flux<Anime> search(@RequestParam String q,
+                              @RequestParam(defaultValue = "false") boolean prefix,
+                              @RequestParam(defaultValue = "0") long after,
+                              @RequestParam(required = false) Integer limit) {
+        return animeService.search(q, prefix, after, limit);
     }
 
     @GetMapping(path = "{id}")
     @ResponseStatus(HttpStatus.OK)
-    @Operation(
+    @Operation(summary = "Find an anime; answers If-None-Match and If-Modified-Since with 304 while it is unchanged",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Mono<ResponseEntity<Anime>> findById(@PathVariable long id) {
+        return animeService.findById(id).map(anime -> validators(ResponseEntity.ok(), anime).body(anime));
+    }
+
+    @GetMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Find several animes by id with a single query, in request order",
             security = @SecurityRequirement(name = "Basic Authentication"),
             tags = {"anime"})
-    public Mono<Anime> findById(@PathVariable long id) {
-        return animeService.findById(id);
+    public Mono<BulkFetchResult> findAllById(@RequestParam List<Long> ids) {
+        return animeService.findAllById(ids);
     }
 
     @PostMapping
@@ -66,6 +116,24 @@ public class AnimeController {
         return   animeService.saveAll(animeList);
     }
 
+    @PostMapping(path = "batch", params = "mode=partial")
+    @ResponseStatus(HttpStatus.MULTI_STATUS)
+    @Operation(summary = "Save the valid animes of the list and report the invalid ones by index",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Mono<BatchSaveResult> batchSavePartial(@RequestBody List<Anime> animeList) {
+        return animeService.saveAllValid(animeList);
+    }
+
+    @PostMapping(path = "batch", params = "mode=upsert")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Insert the animes of the list or reuse the existing rows with the same name",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Flux<Anime> batchUpsert(@RequestBody List<Anime> animeList) {
+        return animeService.upsertAll(animeList);
+    }
+
     @PutMapping(path = "{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(
@@ -83,4 +151,36 @@ public class AnimeController {
     public Mono<Void> delete(@PathVariable long id) {
         return animeService.delete(id);
     }
+
+    @DeleteMapping("batch")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Delete every anime of the id list with one statement",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Mono<BatchDeleteResult> batchDelete(@RequestBody List<Long> ids) {
+        return animeService.deleteAll(ids);
+    }
+
+    @DeleteMapping(params = "namePrefix")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Delete every anime whose name starts with the prefix",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"anime"})
+    public Mono<BatchDeleteResult> deleteByNamePrefix(@RequestParam String namePrefix) {
+        return animeService.deleteByNamePrefix(namePrefix);
+    }
+
+    /**
+     * Adds the ETag and Last-Modified of a versioned anime; a 304 for a matching conditional GET is then answered
+     * by the result handler without writing the body.
+     */
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, Anime anime) {
+        if (anime.getVersion() != null) {
+            response.eTag(String.valueOf(anime.getVersion()));
+        }
+        if (anime.getUpdatedAt() != null) {
+            response.lastModified(anime.getUpdatedAt());
+        }
+        return response;
+    }
 }
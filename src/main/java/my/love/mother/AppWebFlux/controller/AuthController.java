@@ -0,0 +1,33 @@
+package my.love.mother.AppWebFlux.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import my.love.mother.AppWebFlux.domain.TokenResponse;
+import my.love.mother.AppWebFlux.security.TokenService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("auth")
+@RequiredArgsConstructor
+public class AuthController {
+    private final TokenService tokenService;
+
+    @PostMapping("token")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Exchange Basic credentials for a short-lived bearer token",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"auth"})
+    public Mono<TokenResponse> token(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "tokens can only be issued for username and password logins"));
+        }
+        return tokenService.issue(authentication);
+    }
+}
@@ -0,0 +1,27 @@
+package my.love.mother.AppWebFlux.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import my.love.mother.AppWebFlux.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("users")
+@RequiredArgsConstructor
+public class UserController {
+    private final UserService userService;
+
+    @DeleteMapping(path = "{username}/cache")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Drop the cached user details and verified credentials after the user row changed",
+            security = @SecurityRequirement(name = "Basic Authentication"),
+            tags = {"users"})
+    public Mono<Void> evict(@PathVariable String username) {
+        return userService.evict(username);
+    }
+}
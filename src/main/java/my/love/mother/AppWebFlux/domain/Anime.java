@@ -1,10 +1,13 @@
 package my.love.mother.AppWebFlux.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Table;
 
 import javax.validation.constraints.*;
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
@@ -18,4 +21,15 @@ public class Anime {
     @NotNull
     @NotEmpty(message = "название этого аниме не может быть пустым")
     private String name;
+    // assigned by the database on every insert and update; null when this copy did not come from a read
+    @JsonIgnore
+    @ReadOnlyProperty
+    private Long version;
+    @JsonIgnore
+    @ReadOnlyProperty
+    private Instant updatedAt;
+
+    public Anime(Long id, String name) {
+        this(id, name, null, null);
+    }
 }
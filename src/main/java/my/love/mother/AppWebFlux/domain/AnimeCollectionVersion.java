@@ -0,0 +1,18 @@
+package my.love.mother.AppWebFlux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changes whenever a row is inserted, updated or deleted: inserts and updates raise the sum of the row versions,
+ * deletes lower it together with the count. Unlike the maximum version it also changes when transactions commit
+ * out of version order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeCollectionVersion {
+    private long count;
+    private long versionSum;
+}
@@ -0,0 +1,12 @@
+package my.love.mother.AppWebFlux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchDeleteResult {
+    private int deleted;
+}
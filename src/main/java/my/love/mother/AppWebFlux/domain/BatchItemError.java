@@ -0,0 +1,13 @@
+package my.love.mother.AppWebFlux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemError {
+    private int index;
+    private String message;
+}
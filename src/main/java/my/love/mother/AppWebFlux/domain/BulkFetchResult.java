@@ -0,0 +1,15 @@
+package my.love.mother.AppWebFlux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkFetchResult {
+    private List<Anime> found;
+    private List<Long> missing;
+}
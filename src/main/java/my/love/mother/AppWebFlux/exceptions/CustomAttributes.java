@@ -2,24 +2,49 @@ package my.love.mother.AppWebFlux.exceptions;
 
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class CustomAttributes extends DefaultErrorAttributes {
+    private static final String DEVELOPER_MESSAGE = "A ResponseStatusException Happened";
+
     @Override
     public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
-        Map<String, Object> errorAttributesMap = super.getErrorAttributes(request, options);
         Throwable throwable = getError(request);
+        if (throwable instanceof ResponseStatusException && options.getIncludes().isEmpty()) {
+            return responseStatusAttributes(request, (ResponseStatusException) throwable);
+        }
+        Map<String, Object> errorAttributesMap = super.getErrorAttributes(request, options);
         if (throwable instanceof ResponseStatusException) {
             ResponseStatusException exception = (ResponseStatusException) throwable;
             errorAttributesMap.put("message", exception.getMessage());
-            errorAttributesMap.put("developerMessage", "A ResponseStatusException Happened");
+            errorAttributesMap.put("developerMessage", DEVELOPER_MESSAGE);
             return errorAttributesMap;
         }
         return errorAttributesMap;
     }
+
+    /**
+     * Same attributes, in the same order, as the default path above, read straight from the exception instead of
+     * resolved through {@link DefaultErrorAttributes}.
+     */
+    private Map<String, Object> responseStatusAttributes(ServerRequest request, ResponseStatusException exception) {
+        HttpStatus status = HttpStatus.resolve(exception.getRawStatusCode());
+        Map<String, Object> errorAttributesMap = new LinkedHashMap<>();
+        errorAttributesMap.put("timestamp", new Date());
+        errorAttributesMap.put("path", request.path());
+        errorAttributesMap.put("status", exception.getRawStatusCode());
+        errorAttributesMap.put("error", status == null ? null : status.getReasonPhrase());
+        errorAttributesMap.put("message", exception.getMessage());
+        errorAttributesMap.put("requestId", request.exchange().getRequest().getId());
+        errorAttributesMap.put("developerMessage", DEVELOPER_MESSAGE);
+        return errorAttributesMap;
+    }
 }
@@ -0,0 +1,19 @@
+package my.love.mother.AppWebFlux.exceptions;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ErrorTraceFilter implements WebFilter {
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!GlobalExceptionHandler.isTraceEnabled(exchange.getRequest().getURI().getRawQuery())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(ExpectedException.TRACE_REQUESTED, Boolean.TRUE));
+    }
+}
@@ -0,0 +1,39 @@
+package my.love.mother.AppWebFlux.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * A {@link ResponseStatusException} for outcomes the client caused (missing rows, invalid input) that skips
+ * filling in its stack trace. Requests made with {@code trace-true} get a regular exception instead, so the
+ * stack trace is still there when someone asks for it.
+ */
+public class ExpectedException extends ResponseStatusException {
+    static final String TRACE_REQUESTED = ExpectedException.class.getName() + ".TRACE_REQUESTED";
+
+    public ExpectedException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+
+    public static <T> Mono<T> mono(HttpStatus status, String reason) {
+        return Mono.deferContextual(context -> Mono.error(create(context, status, reason)));
+    }
+
+    public static <T> Flux<T> flux(HttpStatus status, String reason) {
+        return Flux.deferContextual(context -> Flux.error(create(context, status, reason)));
+    }
+
+    private static ResponseStatusException create(ContextView context, HttpStatus status, String reason) {
+        return context.getOrDefault(TRACE_REQUESTED, Boolean.FALSE)
+                ? new ResponseStatusException(status, reason)
+                : new ExpectedException(status, reason);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -1,5 +1,7 @@
 package my.love.mother.AppWebFlux.exceptions;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.util.internal.StringUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.web.WebProperties.*;
@@ -8,28 +10,51 @@ import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 
 @Component
 @Order(-2)
 public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
+    private static final Duration DATABASE_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final MeterRegistry meterRegistry;
 
     public GlobalExceptionHandler
             (ErrorAttributes errorAttributes,
              Resources resources,
              ApplicationContext applicationContext,
-             ServerCodecConfigurer codecConfigurer) {
+             ServerCodecConfigurer codecConfigurer,
+             MeterRegistry meterRegistry) {
         super(errorAttributes, resources, applicationContext);
         this.setMessageWriters(codecConfigurer.getWriters());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable throwable) {
+        return super.handle(exchange, translate(throwable));
+    }
+
+    private Throwable translate(Throwable throwable) {
+        if (throwable instanceof DataAccessResourceFailureException
+                || throwable instanceof CannotCreateTransactionException) {
+            return new OverloadedException("database is unavailable, retry later", DATABASE_RETRY_AFTER, throwable);
+        }
+        return throwable;
     }
 
     @Override
@@ -44,13 +69,24 @@ public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
                 ErrorAttributeOptions.defaults();
         Map<String, Object> errorAttributeMap = getErrorAttributes(serverRequest, errorAttributeOptions);
         int status = (int) Optional.ofNullable(errorAttributeMap.get("status")).orElse(500);
+        Throwable error = getError(serverRequest);
+        Counter.builder("http.server.errors")
+                .tag("status", Integer.toString(status))
+                .tag("exception", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
         return ServerResponse
                 .status(status)
+                .headers(headers -> {
+                    if (error instanceof ResponseStatusException) {
+                        headers.addAll(((ResponseStatusException) error).getResponseHeaders());
+                    }
+                })
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(BodyInserters.fromValue(errorAttributeMap));
     }
 
-    private boolean isTraceEnabled(String query) {
+    static boolean isTraceEnabled(String query) {
         return !StringUtils.isEmpty(query) && query.contains("trace-true");
     }
 }
@@ -0,0 +1,27 @@
+package my.love.mother.AppWebFlux.exceptions;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+public class OverloadedException extends ResponseStatusException {
+    private final Duration retryAfter;
+
+    public OverloadedException(String reason, Duration retryAfter) {
+        this(reason, retryAfter, null);
+    }
+
+    public OverloadedException(String reason, Duration retryAfter, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.getSeconds())));
+        return headers;
+    }
+}
@@ -0,0 +1,127 @@
+package my.love.mother.AppWebFlux.limiter;
+
+import my.love.mother.AppWebFlux.exceptions.OverloadedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits at most {@link GradientLimit#getLimit()} calls at a time and fails the rest immediately with
+ * {@link OverloadedException}. A Flux is sampled at its first signal, so a slow consumer does not read as a slow
+ * database, but keeps its permit until it terminates.
+ */
+public class ConcurrencyLimiter {
+    private final String name;
+    private final GradientLimit limit;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimiter(String name, GradientLimit limit, Duration retryAfter) {
+        this.name = name;
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+
+    public <T> Mono<T> limit(Mono<T> source) {
+        return Mono.defer(() -> {
+            Permit permit = tryAcquire();
+            if (permit == null) {
+                return Mono.error(overloaded());
+            }
+            return source
+                    .doOnSuccess(value -> permit.sample(false))
+                    .doOnError(error -> permit.sample(isDropped(error)))
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    public <T> Flux<T> limit(Flux<T> source) {
+        return Flux.defer(() -> {
+            Permit permit = tryAcquire();
+            if (permit == null) {
+                return Flux.error(overloaded());
+            }
+            return source
+                    .doOnNext(value -> permit.sample(false))
+                    .doOnComplete(() -> permit.sample(false))
+                    .doOnError(error -> permit.sample(isDropped(error)))
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    private Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.incrementAndGet();
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    private OverloadedException overloaded() {
+        return new OverloadedException("too many concurrent " + name + " requests, retry later", retryAfter);
+    }
+
+    private static boolean isDropped(Throwable error) {
+        return error instanceof DataAccessResourceFailureException
+                || error instanceof CannotCreateTransactionException
+                || error instanceof TimeoutException;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private final class Permit {
+        private final long start = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        void sample(boolean dropped) {
+            if (sampled.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - start, inFlightAtStart, dropped);
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package my.love.mother.AppWebFlux.limiter;
+
+import my.love.mother.AppWebFlux.config.LimiterProperties;
+
+/**
+ * Concurrency limit that follows the ratio between the long-term and the latest round-trip time: while latency
+ * stays within {@code tolerance} of its baseline the limit grows by {@code sqrt(limit)}, once queueing pushes it
+ * above, the limit shrinks in proportion. Dropped calls (timeouts, pool exhaustion) cut it multiplicatively.
+ */
+public class GradientLimit {
+    private static final double LONG_RTT_ALPHA = 2.0 / 601;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private double limit;
+    private double longRtt;
+
+    public GradientLimit(LimiterProperties.Limit properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.limit = properties.getInitialLimit();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            return;
+        }
+        double rtt = Math.max(1, rttNanos);
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * LONG_RTT_ALPHA;
+        if (longRtt > rtt * 2) {
+            // latency recovered after a slow period, let the baseline follow it down quickly
+            longRtt *= 0.95;
+        }
+        if (inFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+}
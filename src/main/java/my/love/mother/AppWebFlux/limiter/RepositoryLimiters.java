@@ -0,0 +1,63 @@
+package my.love.mother.AppWebFlux.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import my.love.mother.AppWebFlux.config.LimiterProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class RepositoryLimiters implements MeterBinder {
+    private final boolean enabled;
+    private final ConcurrencyLimiter read;
+    private final ConcurrencyLimiter write;
+
+    public RepositoryLimiters(LimiterProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.read = new ConcurrencyLimiter("read", new GradientLimit(properties.getRead()), properties.getRetryAfter());
+        this.write = new ConcurrencyLimiter("write", new GradientLimit(properties.getWrite()), properties.getRetryAfter());
+    }
+
+    public <T> Mono<T> read(Mono<T> source) {
+        return enabled ? read.limit(source) : source;
+    }
+
+    public <T> Flux<T> read(Flux<T> source) {
+        return enabled ? read.limit(source) : source;
+    }
+
+    public <T> Mono<T> write(Mono<T> source) {
+        return enabled ? write.limit(source) : source;
+    }
+
+    public <T> Flux<T> write(Flux<T> source) {
+        return enabled ? write.limit(source) : source;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(read, registry);
+        bind(write, registry);
+    }
+
+    private static void bind(ConcurrencyLimiter limiter, MeterRegistry registry) {
+        Gauge.builder("db.limiter.limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("kind", limiter.getName())
+                .register(registry);
+        Gauge.builder("db.limiter.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                .tag("kind", limiter.getName())
+                .register(registry);
+        FunctionCounter.builder("db.limiter.calls", limiter, ConcurrencyLimiter::getAcceptedCount)
+                .tag("kind", limiter.getName())
+                .tag("outcome", "accepted")
+                .register(registry);
+        FunctionCounter.builder("db.limiter.calls", limiter, ConcurrencyLimiter::getRejectedCount)
+                .tag("kind", limiter.getName())
+                .tag("outcome", "rejected")
+                .register(registry);
+    }
+}
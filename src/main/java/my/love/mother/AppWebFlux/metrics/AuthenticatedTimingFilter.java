@@ -0,0 +1,25 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs right after the Spring Security filter chain (order -100) and records how long the request spent
+ * getting there as the {@code auth} phase.
+ */
+@Component
+@Order(0)
+public class AuthenticatedTimingFilter implements WebFilter {
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestTimings timings = exchange.getAttribute(RequestTimings.class.getName());
+        if (timings != null) {
+            timings.mark("auth");
+        }
+        return chain.filter(exchange);
+    }
+}
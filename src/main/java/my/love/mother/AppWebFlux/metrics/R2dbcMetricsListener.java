@@ -0,0 +1,80 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.proxy.core.MethodExecutionInfo;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class R2dbcMetricsListener implements ProxyExecutionListener {
+    private final MeterRegistry registry;
+    private final ObservabilityProperties properties;
+
+    public R2dbcMetricsListener(MeterRegistry registry, ObservabilityProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    public static ConnectionFactory instrument(ConnectionFactory connectionFactory, MeterRegistry registry,
+                                               ObservabilityProperties properties) {
+        return ProxyConnectionFactory.builder(connectionFactory)
+                .listener(new R2dbcMetricsListener(registry, properties))
+                .build();
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionInfo executionInfo) {
+        if (executionInfo.getTarget() instanceof ConnectionFactory && "create".equals(executionInfo.getMethod().getName())) {
+            Timer.builder("r2dbc.pool.acquire")
+                    .description("Time spent waiting for a connection from the pool")
+                    .tag("outcome", executionInfo.getThrown() == null ? "success" : "error")
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(executionInfo.getExecuteDuration());
+        }
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        List<QueryInfo> queries = execInfo.getQueries();
+        String sql = queries.isEmpty() ? "" : queries.get(0).getQuery();
+        Timer.builder("r2dbc.query")
+                .description("Time from executing a statement to its last result")
+                .tag("type", statementType(sql))
+                .tag("outcome", execInfo.isSuccess() ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(execInfo.getExecuteDuration());
+        if (ReactiveMetrics.isSampled(properties.getSqlSampleRate())) {
+            log.info("{} ms [{} binding(s)] {}", execInfo.getExecuteDuration().toMillis(), execInfo.getBindingsSize(),
+                    queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static String statementType(String sql) {
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        switch (trimmed.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT":
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+                return trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+            default:
+                return "other";
+        }
+    }
+}
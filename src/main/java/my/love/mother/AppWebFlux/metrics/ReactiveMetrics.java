@@ -0,0 +1,69 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class ReactiveMetrics {
+    private final MeterRegistry registry;
+    private final ObservabilityProperties properties;
+
+    public ReactiveMetrics(MeterRegistry registry, ObservabilityProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    public <T> Mono<T> timed(String name, String method, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return RequestTimings.phase("service", method, source)
+                    .doFinally(signal -> record(name, method, signal, System.nanoTime() - start));
+        });
+    }
+
+    public <T> Flux<T> timed(String name, String method, Flux<T> source) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return RequestTimings.phase("service", method, source)
+                    .doFinally(signal -> record(name, method, signal, System.nanoTime() - start));
+        });
+    }
+
+    private void record(String name, String method, SignalType signal, long nanos) {
+        String outcome = outcome(signal);
+        Timer.builder(name)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (isSampled(properties.getLogSampleRate())) {
+            log.info("{}.{} {} in {} us", name, method, outcome, TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    private static String outcome(SignalType signal) {
+        switch (signal) {
+            case ON_COMPLETE:
+                return "success";
+            case ON_ERROR:
+                return "error";
+            default:
+                return "cancelled";
+        }
+    }
+
+    public static boolean isSampled(double rate) {
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -0,0 +1,99 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class RequestTimings {
+    private final long start = System.nanoTime();
+    private final AtomicLong lastPhaseEnd = new AtomicLong();
+    private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    public static RequestTimings from(ContextView context) {
+        return context.getOrDefault(RequestTimings.class, null);
+    }
+
+    public static <T> Mono<T> phase(String name, String description, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            RequestTimings timings = from(context);
+            if (timings == null) {
+                return source;
+            }
+            long phaseStart = System.nanoTime();
+            return source
+                    .doOnSuccess(value -> timings.add(name, description, phaseStart))
+                    .doOnError(error -> timings.add(name, description, phaseStart));
+        });
+    }
+
+    public static <T> Flux<T> phase(String name, String description, Flux<T> source) {
+        return Flux.deferContextual(context -> {
+            RequestTimings timings = from(context);
+            if (timings == null) {
+                return source;
+            }
+            long phaseStart = System.nanoTime();
+            return source.doOnTerminate(() -> timings.add(name, description, phaseStart));
+        });
+    }
+
+    public void mark(String name) {
+        add(name, null, start);
+    }
+
+    private void add(String name, String description, long phaseStart) {
+        long end = System.nanoTime();
+        phases.add(new Phase(name, description, end - phaseStart));
+        lastPhaseEnd.accumulateAndGet(end, Math::max);
+    }
+
+    /**
+     * Closes the request: the time between the last recorded phase and now is reported as {@code encode},
+     * which covers serialization and any work the handler did after its last timed call.
+     */
+    public void complete() {
+        long now = System.nanoTime();
+        long handlerEnd = lastPhaseEnd.get();
+        if (handlerEnd != 0) {
+            phases.add(new Phase("encode", null, now - handlerEnd));
+        }
+        phases.add(new Phase("total", null, now - start));
+    }
+
+    public String toServerTiming() {
+        return phases.stream()
+                .map(phase -> phase.description == null
+                        ? String.format(Locale.ROOT, "%s;dur=%.2f", phase.name, phase.millis())
+                        : String.format(Locale.ROOT, "%s;desc=\"%s\";dur=%.2f", phase.name, phase.description, phase.millis()))
+                .collect(Collectors.joining(", "));
+    }
+
+    public String toLogFields() {
+        return phases.stream()
+                .map(phase -> String.format(Locale.ROOT, "%s=%.2f",
+                        phase.description == null ? phase.name : phase.name + "." + phase.description, phase.millis()))
+                .collect(Collectors.joining(" "));
+    }
+
+    private static class Phase {
+        private final String name;
+        private final String description;
+        private final long nanos;
+
+        Phase(String name, String description, long nanos) {
+            this.name = name;
+            this.description = description;
+            this.nanos = nanos;
+        }
+
+        double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter implements WebFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    private final ObservabilityProperties properties;
+
+    public ServerTimingFilter(ObservabilityProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!ReactiveMetrics.isSampled(properties.getTimingSampleRate())) {
+            return chain.filter(exchange);
+        }
+        RequestTimings timings = new RequestTimings();
+        exchange.getAttributes().put(RequestTimings.class.getName(), timings);
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+            timings.complete();
+            exchange.getResponse().getHeaders().add(SERVER_TIMING, timings.toServerTiming());
+        }));
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestTimings.class, timings))
+                .doFinally(signal -> accessLog.info("method={} path={} status={} {}",
+                        exchange.getRequest().getMethodValue(),
+                        exchange.getRequest().getPath().value(),
+                        exchange.getResponse().getRawStatusCode(),
+                        timings.toLogFields()));
+    }
+}
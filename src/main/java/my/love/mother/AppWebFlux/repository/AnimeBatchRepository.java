@@ -0,0 +1,18 @@
+package my.love.mother.AppWebFlux.repository;
+
+import my.love.mother.AppWebFlux.domain.Anime;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface AnimeBatchRepository {
+    Flux<Anime> insertAll(List<Anime> animeList);
+
+    Flux<Anime> upsertAll(List<Anime> animeList);
+
+    /**
+     * Inserts the anime whose name is not taken yet, by an existing row or an earlier one of the list, and emits
+     * only those.
+     */
+    Flux<Anime> insertAllSkippingConflicts(List<Anime> animeList);
+}
@@ -0,0 +1,73 @@
+package my.love.mother.AppWebFlux.repository;
+
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.StringJoiner;
+
+@RequiredArgsConstructor
+public class AnimeBatchRepositoryImpl implements AnimeBatchRepository {
+    private static final String INSERT_ANIME = "INSERT INTO anime (name) VALUES ";
+    // the no-op update only makes the existing row return its id; it keeps the row's version
+    private static final String UPSERT = " ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name";
+    private static final String SKIP_CONFLICTS = " ON CONFLICT DO NOTHING";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animeList) {
+        return insertRows(animeList, "");
+    }
+
+    @Override
+    public Flux<Anime> upsertAll(List<Anime> animeList) {
+        return insertRows(animeList, UPSERT);
+    }
+
+    @Override
+    public Flux<Anime> insertAllSkippingConflicts(List<Anime> animeList) {
+        return insertRows(animeList, SKIP_CONFLICTS);
+    }
+
+    /**
+     * Inserts the whole list with one multi-row statement, i.e. one round trip. Bindings added with
+     * {@link Statement#add()} are executed one after another by the driver and cost a round trip each.
+     */
+    private Flux<Anime> insertRows(List<Anime> animeList, String onConflict) {
+        if (animeList.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_ANIME + placeholders(animeList.size()) + onConflict)
+                    .returnGeneratedValues("id", "name", "version", "updated_at");
+            for (int i = 0; i < animeList.size(); i++) {
+                bindName(statement, i, animeList.get(i).getName());
+            }
+            return Flux.from(statement.execute())
+                    // rows come back in no guaranteed order and skipped ones not at all, so names are read back too
+                    .concatMap(result -> result.map((row, metadata) -> new Anime(row.get("id", Long.class),
+                            row.get("name", String.class), row.get("version", Long.class), row.get("updated_at", Instant.class))));
+        });
+    }
+
+    private String placeholders(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 1; i <= rows; i++) {
+            values.add("($" + i + ")");
+        }
+        return values.toString();
+    }
+
+    private void bindName(Statement statement, int index, String name) {
+        if (name == null) {
+            statement.bindNull(index, String.class);
+        } else {
+            statement.bind(index, name);
+        }
+    }
+}
@@ -1,9 +1,44 @@
 package my.love.mother.AppWebFlux.repository;
 
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface AnimeRepository extends ReactiveCrudRepository<Anime, Long> {
+public interface AnimeRepository extends ReactiveCrudRepository<Anime, Long>, AnimeBatchRepository {
     Mono<Anime> findById(long id);
+
+    @Query("SELECT * FROM anime WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Anime> findPageAfter(long after, int limit);
+
+    @Query("SELECT * FROM anime WHERE version > :after ORDER BY version LIMIT :limit")
+    Flux<Anime> findChangedAfter(long after, int limit);
+
+    @Query("SELECT * FROM anime WHERE name ILIKE :pattern AND id > :after ORDER BY id LIMIT :limit")
+    Flux<Anime> searchByName(String pattern, long after, int limit);
+
+    @Query("SELECT * FROM anime WHERE id = ANY(:ids)")
+    Flux<Anime> findAllByIds(Long[] ids);
+
+    @Query("SELECT count(*) AS count, CAST(coalesce(sum(version), 0) AS bigint) AS version_sum FROM anime")
+    Mono<AnimeCollectionVersion> findCollectionVersion();
+
+    @Modifying
+    @Query("UPDATE anime SET name = :name, version = nextval('anime_version_seq'), updated_at = current_timestamp WHERE id = :id")
+    Mono<Integer> updateName(long id, String name);
+
+    @Modifying
+    @Query("DELETE FROM anime WHERE id = :id")
+    Mono<Integer> removeById(long id);
+
+    @Modifying
+    @Query("DELETE FROM anime WHERE id = ANY(:ids)")
+    Mono<Integer> removeAllByIds(Long[] ids);
+
+    @Modifying
+    @Query("DELETE FROM anime WHERE name LIKE :pattern")
+    Mono<Integer> removeAllByNameLike(String pattern);
 }
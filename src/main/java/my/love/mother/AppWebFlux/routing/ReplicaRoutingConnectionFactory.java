@@ -0,0 +1,189 @@
+package my.love.mother.AppWebFlux.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.config.ReplicaProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends connections requested inside {@link Routing#readOnly} to a healthy replica (round-robin) and everything
+ * else to the primary. A principal that just took a primary connection keeps reading from the primary for
+ * {@code replica.read-your-writes-window}; a replica that fails its health check or a connection attempt is
+ * skipped until the next successful check.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, DisposableBean {
+    private final ConnectionFactory primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong primaryRoutes = new AtomicLong();
+    private final AtomicLong replicaRoutes = new AtomicLong();
+    private final AtomicLong fallbackRoutes = new AtomicLong();
+    private final Duration healthCheckTimeout;
+    private final Disposable healthChecks;
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                           ReplicaProperties properties) {
+        this.primary = primary;
+        replicas.forEach((name, connectionFactory) -> this.replicas.add(new Replica(name, connectionFactory)));
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .build();
+        this.healthCheckTimeout = properties.getHealthCheckTimeout();
+        this.healthChecks = Flux.interval(Duration.ZERO, properties.getHealthCheckInterval())
+                .concatMap(tick -> Flux.fromIterable(this.replicas).flatMap(Replica::check))
+                .subscribe();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            boolean readOnly = Routing.isReadOnly(context);
+            return ReactiveSecurityContextHolder.getContext()
+                    .mapNotNull(securityContext -> securityContext.getAuthentication())
+                    .map(Authentication::getName)
+                    .defaultIfEmpty("")
+                    .flatMap(principal -> readOnly ? read(principal, Routing.pinnedTarget(context)) : write(principal));
+        });
+    }
+
+    private Mono<Connection> write(String principal) {
+        if (!principal.isEmpty()) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+        primaryRoutes.incrementAndGet();
+        return Mono.<Connection>from(primary.create());
+    }
+
+    private Mono<Connection> read(String principal, AtomicReference<Object> pinnedTarget) {
+        Object pinned = pinnedTarget == null ? null : pinnedTarget.get();
+        Replica replica;
+        if (pinned != null) {
+            // a pinned replica that went down falls back to the primary, which is never behind it
+            replica = pinned instanceof Replica && ((Replica) pinned).healthy ? (Replica) pinned : null;
+        } else {
+            replica = !principal.isEmpty() && recentWriters.getIfPresent(principal) != null
+                    ? null
+                    : nextHealthyReplica();
+            if (pinnedTarget != null) {
+                pinnedTarget.set(replica == null ? primary : replica);
+            }
+        }
+        if (replica == null) {
+            primaryRoutes.incrementAndGet();
+            return Mono.<Connection>from(primary.create());
+        }
+        replicaRoutes.incrementAndGet();
+        return Mono.<Connection>from(replica.connectionFactory.create())
+                .onErrorResume(error -> {
+                    replica.markHealthy(false, error);
+                    fallbackRoutes.incrementAndGet();
+                    return Mono.<Connection>from(primary.create());
+                });
+    }
+
+    private Replica nextHealthyReplica() {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("r2dbc.route", primaryRoutes, AtomicLong::get)
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("r2dbc.route", replicaRoutes, AtomicLong::get)
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("r2dbc.route", fallbackRoutes, AtomicLong::get)
+                .tag("target", "fallback")
+                .register(registry);
+        replicas.forEach(replica -> Gauge.builder("r2dbc.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .tag("replica", replica.name)
+                .register(registry));
+    }
+
+    @Override
+    public void destroy() {
+        healthChecks.dispose();
+        dispose(primary);
+        replicas.forEach(replica -> dispose(replica.connectionFactory));
+    }
+
+    private static void dispose(Object connectionFactory) {
+        Object target = connectionFactory;
+        while (target instanceof Wrapped) {
+            target = ((Wrapped<?>) target).unwrap();
+        }
+        if (target instanceof Disposable) {
+            ((Disposable) target).dispose();
+        }
+    }
+
+    private class Replica {
+        private final String name;
+        private final ConnectionFactory connectionFactory;
+        private volatile boolean healthy = true;
+
+        Replica(String name, ConnectionFactory connectionFactory) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+        }
+
+        Mono<Boolean> check() {
+            return Mono.usingWhen(connectionFactory.create(),
+                            connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                            Connection::close)
+                    .timeout(healthCheckTimeout)
+                    .onErrorResume(error -> {
+                        markHealthy(false, error);
+                        return Mono.empty();
+                    })
+                    .doOnNext(valid -> markHealthy(valid, null));
+        }
+
+        void markHealthy(boolean healthy, Throwable error) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Replica {} is back, routing reads to it", name);
+                } else {
+                    log.warn("Replica {} is down, routing its reads to the primary: {}", name,
+                            error == null ? "validation failed" : error.toString());
+                }
+            }
+            this.healthy = healthy;
+        }
+    }
+}
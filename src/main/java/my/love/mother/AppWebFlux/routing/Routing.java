@@ -0,0 +1,43 @@
+package my.love.mother.AppWebFlux.routing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+public final class Routing {
+    private static final String READ_ONLY = Routing.class.getName() + ".READ_ONLY";
+    private static final String PINNED_TARGET = Routing.class.getName() + ".PINNED_TARGET";
+
+    private Routing() {
+    }
+
+    public static <T> Mono<T> readOnly(Mono<T> source) {
+        return source.contextWrite(context -> context.put(READ_ONLY, Boolean.TRUE));
+    }
+
+    public static <T> Flux<T> readOnly(Flux<T> source) {
+        return source.contextWrite(context -> context.put(READ_ONLY, Boolean.TRUE));
+    }
+
+    /**
+     * Returns a context modifier that sends every read-only query of the publishers it is written into to the
+     * database the first of them was routed to, so that results read one after another come from the same point
+     * in replication.
+     */
+    public static Function<Context, Context> sameTarget() {
+        AtomicReference<Object> target = new AtomicReference<>();
+        return context -> context.put(PINNED_TARGET, target);
+    }
+
+    public static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY, Boolean.FALSE);
+    }
+
+    static AtomicReference<Object> pinnedTarget(ContextView context) {
+        return context.getOrDefault(PINNED_TARGET, null);
+    }
+}
@@ -0,0 +1,32 @@
+package my.love.mother.AppWebFlux.security;
+
+import lombok.RequiredArgsConstructor;
+import my.love.mother.AppWebFlux.cache.UserCache;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class CachingAuthenticationManager implements ReactiveAuthenticationManager {
+    private final ReactiveAuthenticationManager delegate;
+    private final UserCache userCache;
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || !(authentication.getCredentials() instanceof String)) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        String password = (String) authentication.getCredentials();
+        return Mono.defer(() -> {
+            Authentication verified = userCache.getVerified(username, password);
+            if (verified != null) {
+                return Mono.just(verified);
+            }
+            return delegate.authenticate(authentication)
+                    .doOnNext(result -> userCache.putVerified(username, password, result));
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package my.love.mother.AppWebFlux.security;
+
+import com.nimbusds.jose.JWSObject;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class KeyRotatingJwtDecoder implements ReactiveJwtDecoder {
+    private final Map<String, ReactiveJwtDecoder> decoders = new HashMap<>();
+
+    public KeyRotatingJwtDecoder(TokenKeys tokenKeys) {
+        tokenKeys.getKeys().forEach((keyId, key) -> decoders.put(keyId, NimbusReactiveJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build()));
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        String keyId;
+        try {
+            keyId = JWSObject.parse(token).getHeader().getKeyID();
+        } catch (ParseException e) {
+            return Mono.error(new BadJwtException("Malformed token", e));
+        }
+        ReactiveJwtDecoder decoder = keyId == null ? null : decoders.get(keyId);
+        if (decoder == null) {
+            return Mono.error(new BadJwtException("Token is signed with an unknown key"));
+        }
+        return Mono.defer(() -> decoder.decode(token));
+    }
+}
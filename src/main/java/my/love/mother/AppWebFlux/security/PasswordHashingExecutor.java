@@ -0,0 +1,109 @@
+package my.love.mother.AppWebFlux.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import my.love.mother.AppWebFlux.exceptions.OverloadedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+    private final ThreadPoolExecutor executor;
+    @Getter
+    private final Scheduler scheduler;
+    @Getter
+    private final PasswordEncoder passwordEncoder;
+    private final Duration retryAfter;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(AuthProperties authProperties, MeterRegistry registry) {
+        AuthProperties.Hashing properties = authProperties.getHashing();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.retryAfter = properties.getRetryAfter();
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent verifying a password hash")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Logins turned away because the hashing queue was full")
+                .register(registry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Password checks waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks currently running")
+                .register(registry);
+        this.passwordEncoder = new TimedPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+    }
+
+    public ReactiveAuthenticationManager admit(ReactiveAuthenticationManager delegate) {
+        return authentication -> Mono.defer(() -> {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return Mono.error(overloaded());
+            }
+            return delegate.authenticate(authentication)
+                    .onErrorMap(RejectedExecutionException.class, e -> overloaded());
+        });
+    }
+
+    private OverloadedException overloaded() {
+        rejected.increment();
+        return new OverloadedException("too many login attempts, retry later", retryAfter);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private class TimedPasswordEncoder implements PasswordEncoder {
+        private final PasswordEncoder delegate;
+
+        TimedPasswordEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return hashTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package my.love.mother.AppWebFlux.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Getter
+@Component
+public class TokenKeys {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final Map<String, SecretKey> keys;
+    private final String activeKeyId;
+
+    public TokenKeys(AuthProperties authProperties) {
+        AuthProperties.Token token = authProperties.getToken();
+        Map<String, SecretKey> configured = new LinkedHashMap<>();
+        token.getKeys().forEach((keyId, secret) -> configured.put(keyId, decode(keyId, secret)));
+        if (configured.isEmpty()) {
+            log.warn("No auth.token.keys configured, signing tokens with a random key that only this instance knows");
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            configured.put("local", new SecretKeySpec(secret, ALGORITHM));
+        }
+        this.activeKeyId = token.getActiveKey() != null ? token.getActiveKey() : configured.keySet().iterator().next();
+        if (!configured.containsKey(activeKeyId)) {
+            throw new IllegalStateException("auth.token.active-key '" + activeKeyId + "' is not one of auth.token.keys");
+        }
+        this.keys = Collections.unmodifiableMap(configured);
+    }
+
+    public SecretKey getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    private static SecretKey decode(String keyId, String secret) {
+        byte[] bytes = Base64.getDecoder().decode(secret);
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("auth.token.keys." + keyId + " must be at least 256 bits");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+}
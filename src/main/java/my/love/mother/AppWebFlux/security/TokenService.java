@@ -0,0 +1,56 @@
+package my.love.mother.AppWebFlux.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import my.love.mother.AppWebFlux.domain.TokenResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class TokenService {
+    public static final String ROLES_CLAIM = "roles";
+
+    private final JwtEncoder jwtEncoder;
+    private final String keyId;
+    private final Duration timeToLive;
+
+    public TokenService(TokenKeys tokenKeys, AuthProperties authProperties) {
+        OctetSequenceKey signingKey = new OctetSequenceKey.Builder(tokenKeys.getActiveKey())
+                .keyID(tokenKeys.getActiveKeyId())
+                .algorithm(JWSAlgorithm.HS256)
+                .build();
+        this.jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(signingKey)));
+        this.keyId = tokenKeys.getActiveKeyId();
+        this.timeToLive = authProperties.getToken().getTimeToLive();
+    }
+
+    public Mono<TokenResponse> issue(Authentication authentication) {
+        return Mono.fromCallable(() -> {
+            Instant now = Instant.now();
+            List<String> roles = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+            JwtClaimsSet claims = JwtClaimsSet.builder()
+                    .subject(authentication.getName())
+                    .issuedAt(now)
+                    .expiresAt(now.plus(timeToLive))
+                    .claim(ROLES_CLAIM, roles)
+                    .build();
+            JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).keyId(keyId).build();
+            Jwt jwt = jwtEncoder.encode(JwtEncoderParameters.from(header, claims));
+            return new TokenResponse(jwt.getTokenValue(), "Bearer", timeToLive.getSeconds());
+        });
+    }
+}
@@ -1,63 +1,411 @@
 package my.love.mother.AppWebFlux.service;
 
-import io.netty.util.internal.StringUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.cache.AnimeCache;
+import my.love.mother.AppWebFlux.cache.AnimeCatalog;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.cache.InFlightLookups;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import my.love.mother.AppWebFlux.domain.BatchDeleteResult;
+import my.love.mother.AppWebFlux.domain.BatchItemError;
+import my.love.mother.AppWebFlux.domain.BatchSaveResult;
+import my.love.mother.AppWebFlux.domain.BulkFetchResult;
+import my.love.mother.AppWebFlux.exceptions.ExpectedException;
+import my.love.mother.AppWebFlux.limiter.RepositoryLimiters;
+import my.love.mother.AppWebFlux.metrics.ReactiveMetrics;
+import my.love.mother.AppWebFlux.metrics.RequestTimings;
 import my.love.mother.AppWebFlux.repository.AnimeRepository;
+import my.love.mother.AppWebFlux.routing.Routing;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class AnimeService {
+    private static final String TIMER = "anime.service";
+    private static final String NAME_CONFLICT = "anime with this name already exists";
+
     private final AnimeRepository animeRepository;
+    private final AnimeProperties animeProperties;
+    private final Validator validator;
+    private final AnimeCache animeCache;
+    private final InFlightLookups inFlightLookups;
+    private final ReactiveMetrics metrics;
+    private final RepositoryLimiters limiters;
+    private final AnimeCatalog animeCatalog;
+    private final AnimeJsonCache jsonCache;
 
     public Flux<Anime> findAll() {
-        return animeRepository.findAll();
+        if (animeCatalog.isServing()) {
+            return metrics.timed(TIMER, "findAll", animeCatalog.findAll());
+        }
+        return metrics.timed(TIMER, "findAll", Routing.readOnly(limiters.read(animeRepository.findAll())));
+    }
+
+    /**
+     * Reads the collection version and passes it to {@code listing} together with a lazy {@link #findAll()}, or
+     * passes null when the version is unknown. Both reads go to the same database and the list is read second,
+     * so it is never older than the version a client caches it under.
+     */
+    public <T> Mono<T> findAllWithVersion(BiFunction<AnimeCollectionVersion, Flux<Anime>, T> listing) {
+        Function<Context, Context> sameTarget = Routing.sameTarget();
+        Flux<Anime> animeList = Flux.defer(this::findAll).contextWrite(sameTarget);
+        return findCollectionVersion()
+                .contextWrite(sameTarget)
+                .map(version -> listing.apply(version, animeList))
+                .switchIfEmpty(Mono.fromSupplier(() -> listing.apply(null, animeList)));
+    }
+
+    private Mono<AnimeCollectionVersion> findCollectionVersion() {
+        if (animeCatalog.isServing()) {
+            return metrics.timed(TIMER, "findCollectionVersion", animeCatalog.findCollectionVersion());
+        }
+        return metrics.timed(TIMER, "findCollectionVersion",
+                Routing.readOnly(limiters.read(animeRepository.findCollectionVersion())));
+    }
+
+    public Flux<Anime> findPage(long after, Integer limit) {
+        if (limit != null && limit < 1) {
+            return ExpectedException.flux(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return metrics.timed(TIMER, "findPage", Routing.readOnly(limiters.read(animeRepository.findPageAfter(after, resolvePageLimit(limit)))));
+    }
+
+    public Flux<Anime> streamAll() {
+        if (animeCatalog.isServing()) {
+            return metrics.timed(TIMER, "streamAll", animeCatalog.findAll());
+        }
+        return metrics.timed(TIMER, "streamAll", Routing.readOnly(allPages()));
+    }
+
+    private Flux<Anime> allPages() {
+        return pagesAfter(0L, animeRepository::findPageAfter, Anime::getId);
+    }
+
+    /**
+     * Reads every row past {@code after} in pages of the maximum page size, keyed by {@code key}.
+     */
+    private Flux<Anime> pagesAfter(long after, BiFunction<Long, Integer, Flux<Anime>> page, ToLongFunction<Anime> key) {
+        int pageSize = animeProperties.getPage().getMaxLimit();
+        return limiters.read(page.apply(after, pageSize))
+                .collectList()
+                .expand(rows -> rows.size() < pageSize
+                        ? Mono.empty()
+                        : limiters.read(page.apply(key.applyAsLong(rows.get(rows.size() - 1)), pageSize)).collectList())
+                .flatMapIterable(Function.identity());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatalog() {
+        // reads from the primary on purpose: a lagging replica would undo deltas applied just before a fetch
+        animeCatalog.start(new AnimeCatalog.Source() {
+            @Override
+            public Flux<Anime> findAll() {
+                return allPages();
+            }
+
+            @Override
+            public Flux<Anime> findChangedSince(long version) {
+                return pagesAfter(version, animeRepository::findChangedAfter, Anime::getVersion);
+            }
+
+            @Override
+            public Flux<Anime> findAllById(List<Long> ids) {
+                return Flux.fromIterable(ids)
+                        .buffer(animeProperties.getPage().getMaxLimit())
+                        .concatMap(page -> limiters.read(animeRepository.findAllByIds(page.toArray(new Long[0]))));
+            }
+
+            @Override
+            public Mono<AnimeCollectionVersion> findCollectionVersion() {
+                return limiters.read(animeRepository.findCollectionVersion());
+            }
+        });
+    }
+
+    public Flux<Anime> search(String query, boolean prefix, long after, Integer limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return ExpectedException.flux(HttpStatus.BAD_REQUEST, "q must not be empty");
+        }
+        int minSubstringLength = animeProperties.getSearch().getMinSubstringLength();
+        if (!prefix && query.length() < minSubstringLength) {
+            return ExpectedException.flux(HttpStatus.BAD_REQUEST,
+                    "q must have at least " + minSubstringLength + " characters for substring search");
+        }
+        if (limit != null && limit < 1) {
+            return ExpectedException.flux(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        String pattern = (prefix ? "" : "%") + escapeLikePattern(query) + "%";
+        return metrics.timed(TIMER, "search",
+                Routing.readOnly(limiters.read(animeRepository.searchByName(pattern, after, resolvePageLimit(limit)))));
+    }
+
+    private int resolvePageLimit(Integer limit) {
+        AnimeProperties.Page page = animeProperties.getPage();
+        return limit == null ? page.getDefaultLimit() : Math.min(limit, page.getMaxLimit());
     }
 
     public Mono<Anime> findById(long id) {
-        return animeRepository.findById(id)
-                .switchIfEmpty(monoResponseStatusException())
-                .log();
+        if (animeCatalog.isServing()) {
+            return metrics.timed(TIMER, "findById", animeCatalog.findById(id).switchIfEmpty(monoResponseStatusException()));
+        }
+        return metrics.timed(TIMER, "findById", Mono.deferContextual(context ->
+                        animeCache.get(id, key -> inFlightLookups.get(key, this::loadById).contextWrite(context)))
+                .switchIfEmpty(monoResponseStatusException()));
+    }
+
+    private Mono<Anime> loadById(Long id) {
+        return RequestTimings.phase("db", "findById", Routing.readOnly(limiters.read(animeRepository.findById(id.longValue()))));
+    }
+
+    public Mono<BulkFetchResult> findAllById(List<Long> ids) {
+        if (ids.contains(null)) {
+            return ExpectedException.mono(HttpStatus.BAD_REQUEST, "ids must not contain empty values");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > animeProperties.getPage().getMaxLimit()) {
+            return ExpectedException.mono(HttpStatus.BAD_REQUEST,
+                    "at most " + animeProperties.getPage().getMaxLimit() + " ids can be requested at once");
+        }
+        return metrics.timed(TIMER, "findAllById", Mono.deferContextual(context ->
+                        animeCache.getAll(distinctIds, missing -> loadAllById(missing).contextWrite(context)))
+                .map(found -> toBulkFetchResult(distinctIds, found)));
+    }
+
+    private Flux<Anime> loadAllById(List<Long> ids) {
+        return Routing.readOnly(limiters.read(animeRepository.findAllByIds(ids.toArray(new Long[0]))));
+    }
+
+    private BulkFetchResult toBulkFetchResult(Set<Long> ids, Map<Long, Anime> found) {
+        List<Anime> ordered = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Anime anime = found.get(id);
+            if (anime == null) {
+                missing.add(id);
+            } else {
+                ordered.add(anime);
+            }
+        }
+        return new BulkFetchResult(ordered, missing);
     }
 
     public <T> Mono<T> monoResponseStatusException() {
-        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "сообщение не найдено"));
+        return ExpectedException.mono(HttpStatus.NOT_FOUND, "сообщение не найдено");
     }
 
+    /**
+     * Inserts the anime, or renames it when the body carries an id: an update through the repository's {@code save}
+     * would leave the read-only version and update time behind and keep serving the old validators.
+     */
     public Mono<Anime> save(Anime anime) {
-        return animeRepository.save(anime);
+        if (anime.getId() != null) {
+            return update(anime).thenReturn(anime);
+        }
+        return metrics.timed(TIMER, "save", limiters.write(animeRepository.save(anime))
+                .onErrorMap(DataIntegrityViolationException.class, this::nameConflict)
+                // the saved copy has no version yet, so the next read loads it instead
+                .doOnNext(saved -> evict(saved.getId()))
+                .doOnNext(animeCatalog::upsert));
     }
 
     public Mono<Void> update(Anime anime) {
-        return findById(anime.getId())
-                .flatMap(validAnime -> animeRepository.save(anime))
-                .then();
+        return metrics.timed(TIMER, "update", limiters.write(animeRepository.updateName(anime.getId(), anime.getName()))
+                .onErrorMap(DataIntegrityViolationException.class, this::nameConflict)
+                .flatMap(this::requireAffectedRow)
+                .doOnSuccess(done -> animeCatalog.upsert(anime))
+                .doOnTerminate(() -> evict(anime.getId())));
     }
 
     public Mono<Void> delete(long id) {
-        return findById(id)
-                .flatMap(animeRepository::delete);
+        return metrics.timed(TIMER, "delete", limiters.write(animeRepository.removeById(id))
+                .flatMap(this::requireAffectedRow)
+                .doOnSuccess(done -> animeCatalog.remove(id))
+                .doOnTerminate(() -> evict(id)));
+    }
+
+    @Transactional
+    public Mono<BatchDeleteResult> deleteAll(List<Long> ids) {
+        if (ids.contains(null)) {
+            return ExpectedException.mono(HttpStatus.BAD_REQUEST, "ids must not contain null");
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(new BatchDeleteResult(0));
+        }
+        return metrics.timed(TIMER, "deleteAll", limiters.write(animeRepository.removeAllByIds(ids.toArray(new Long[0])))
+                .doOnNext(removed -> animeCatalog.removeAll(ids))
+                .doOnTerminate(() -> ids.forEach(this::evict))
+                .map(BatchDeleteResult::new));
+    }
+
+    @Transactional
+    public Mono<BatchDeleteResult> deleteByNamePrefix(String namePrefix) {
+        if (namePrefix == null || namePrefix.isEmpty()) {
+            return ExpectedException.mono(HttpStatus.BAD_REQUEST, "name prefix must not be empty");
+        }
+        return metrics.timed(TIMER, "deleteByNamePrefix",
+                limiters.write(animeRepository.removeAllByNameLike(escapeLikePattern(namePrefix) + "%"))
+                        .doOnNext(removed -> animeCatalog.removeByNamePrefix(namePrefix))
+                        .doOnTerminate(() -> {
+                            inFlightLookups.invalidateAll();
+                            animeCache.invalidateAll();
+                            jsonCache.invalidateAll();
+                        })
+                        .map(BatchDeleteResult::new));
+    }
+
+    private String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private void evict(long id) {
+        // in-flight first: a lookup that misses the cache after this point must not join a pre-write query
+        inFlightLookups.evict(id);
+        animeCache.evict(id);
+        jsonCache.evict(id);
+    }
+
+    private Mono<Void> requireAffectedRow(int affectedRows) {
+        return affectedRows == 0 ? monoResponseStatusException() : Mono.empty();
     }
 
     @Transactional
     public Flux<Anime> saveAll(List<Anime> animeList) {
-        return animeRepository.saveAll(animeList)
-                .doOnNext(this::throwResponseStatusExceptionWhenEmptyName);
+        return metrics.timed(TIMER, "saveAll", Flux.defer(() -> {
+            String invalid = firstViolation(animeList);
+            return invalid == null ? insertInChunks(animeList) : ExpectedException.flux(HttpStatus.BAD_REQUEST, invalid);
+        }));
+    }
+
+    @Transactional
+    public Flux<Anime> upsertAll(List<Anime> animeList) {
+        return metrics.timed(TIMER, "upsertAll", Flux.defer(() -> {
+            String invalid = firstViolation(animeList);
+            if (invalid != null) {
+                return ExpectedException.flux(HttpStatus.BAD_REQUEST, invalid);
+            }
+            Map<String, Anime> distinctByName = new LinkedHashMap<>();
+            animeList.forEach(anime -> distinctByName.putIfAbsent(anime.getName(), anime));
+            return Flux.fromIterable(distinctByName.values())
+                    .buffer(animeProperties.getBatch().getChunkSize())
+                    .concatMap(chunk -> limiters.write(animeRepository.upsertAll(chunk))
+                            .collectList()
+                            .doOnNext(animeCatalog::upsertAll)
+                            .flatMapIterable(Function.identity()))
+                    .doOnNext(saved -> evict(saved.getId()))
+                    .doOnError(error -> animeCatalog.requestReconcile());
+        }));
+    }
+
+    /**
+     * Saves the valid anime and reports the others by index: the ones failing validation and the ones whose name is
+     * already taken, by an existing anime or an earlier item of the list. Taken names are skipped by the insert
+     * itself, so a conflict never aborts the transaction.
+     */
+    @Transactional
+    public Mono<BatchSaveResult> saveAllValid(List<Anime> animeList) {
+        return metrics.timed(TIMER, "saveAllValid", Mono.defer(() -> {
+            List<Integer> validIndexes = new ArrayList<>(animeList.size());
+            List<Anime> validAnime = new ArrayList<>(animeList.size());
+            List<BatchItemError> errors = new ArrayList<>();
+            for (int index = 0; index < animeList.size(); index++) {
+                String violations = validate(animeList.get(index));
+                if (violations == null) {
+                    validIndexes.add(index);
+                    validAnime.add(animeList.get(index));
+                } else {
+                    errors.add(new BatchItemError(index, violations));
+                }
+            }
+            return insertInChunks(validAnime, animeRepository::insertAllSkippingConflicts)
+                    .collectMap(Anime::getName)
+                    .map(savedByName -> {
+                        List<Anime> saved = new ArrayList<>(savedByName.size());
+                        for (int valid = 0; valid < validAnime.size(); valid++) {
+                            // names are unique, so only the first item with a name can have been inserted
+                            Anime inserted = savedByName.remove(validAnime.get(valid).getName());
+                            if (inserted == null) {
+                                errors.add(new BatchItemError(validIndexes.get(valid), NAME_CONFLICT));
+                            } else {
+                                saved.add(inserted);
+                            }
+                        }
+                        errors.sort(Comparator.comparingInt(BatchItemError::getIndex));
+                        return new BatchSaveResult(saved, errors);
+                    });
+        }));
+    }
+
+    private Flux<Anime> insertInChunks(List<Anime> animeList) {
+        return insertInChunks(animeList, animeRepository::insertAll);
+    }
+
+    private Flux<Anime> insertInChunks(List<Anime> animeList, Function<List<Anime>, Flux<Anime>> insert) {
+        return Flux.fromIterable(animeList)
+                .buffer(animeProperties.getBatch().getChunkSize())
+                .concatMap(chunk -> limiters.write(insert.apply(chunk))
+                        .collectList()
+                        .doOnNext(animeCatalog::upsertAll)
+                        .flatMapIterable(Function.identity()))
+                .onErrorMap(DataIntegrityViolationException.class, this::nameConflict)
+                .doOnNext(saved -> evict(saved.getId()))
+                // an earlier chunk may already be in the catalog when the transaction rolls back
+                .doOnError(error -> animeCatalog.requestReconcile());
+    }
+
+    private ResponseStatusException nameConflict(DataIntegrityViolationException exception) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, NAME_CONFLICT, exception);
     }
 
-    private void throwResponseStatusExceptionWhenEmptyName(Anime anime) {
-        if (StringUtil.isNullOrEmpty(anime.getName())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid name");
+    private String firstViolation(List<Anime> animeList) {
+        for (int index = 0; index < animeList.size(); index++) {
+            String violations = validate(animeList.get(index));
+            if (violations != null) {
+                return "Invalid anime at index " + index + ": " + violations;
+            }
+        }
+        return null;
+    }
+
+    private String validate(Anime anime) {
+        if (anime == null) {
+            return "anime must not be null";
+        }
+        Set<ConstraintViolation<Anime>> violations = validator.validate(anime);
+        if (violations.isEmpty()) {
+            return null;
         }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 }
@@ -1,6 +1,8 @@
 package my.love.mother.AppWebFlux.service;
 
 import lombok.RequiredArgsConstructor;
+import my.love.mother.AppWebFlux.cache.UserCache;
+import my.love.mother.AppWebFlux.metrics.RequestTimings;
 import my.love.mother.AppWebFlux.repository.UserRepository;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,9 +13,20 @@ import reactor.core.publisher.Mono;
 @Service
 public class UserService implements ReactiveUserDetailsService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository.findByUsername(username).cast(UserDetails.class);
+        return Mono.deferContextual(context ->
+                userCache.get(username, name -> loadByUsername(name).contextWrite(context)));
+    }
+
+    private Mono<UserDetails> loadByUsername(String username) {
+        return RequestTimings.phase("db", "findByUsername",
+                userRepository.findByUsername(username).cast(UserDetails.class));
+    }
+
+    public Mono<Void> evict(String username) {
+        return Mono.fromRunnable(() -> userCache.evict(username));
     }
 }
@@ -0,0 +1,2 @@
+-- duplicates are reported by vendor/postgresql/V2_1 rather than deleted here
+create unique index anime_name_uindex on anime (name);
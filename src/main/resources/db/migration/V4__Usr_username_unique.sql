@@ -0,0 +1,2 @@
+-- duplicates are reported by vendor/postgresql/V3_1 rather than deleted here
+create unique index usr_username_uindex on usr (username);
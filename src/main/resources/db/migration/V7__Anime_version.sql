@@ -0,0 +1,8 @@
+-- every insert and update takes a new value, so versions only grow and never repeat
+create sequence anime_version_seq;
+
+alter table anime add column version bigint not null default nextval('anime_version_seq');
+alter table anime add column updated_at timestamp with time zone not null default current_timestamp;
+
+-- lets the collection version be computed with an index-only scan
+create index anime_version_index on anime (version);
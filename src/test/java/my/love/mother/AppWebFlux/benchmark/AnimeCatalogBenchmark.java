@@ -0,0 +1,78 @@
+package my.love.mother.AppWebFlux.benchmark;
+
+import my.love.mother.AppWebFlux.cache.AnimeCatalog;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimeCatalogBenchmark {
+    private static final Instant UPDATED_AT = Instant.parse("2022-08-01T10:15:30Z");
+
+    @Param({"1000000"})
+    private int size;
+
+    private AnimeCatalog catalog;
+    private long version;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        AnimeProperties properties = new AnimeProperties();
+        properties.getCatalog().setEnabled(true);
+        properties.getCatalog().setReconcileInterval(Duration.ofHours(1));
+        properties.getCatalog().setVerifyInterval(Duration.ofHours(1));
+        catalog = new AnimeCatalog(properties);
+        version = size;
+        catalog.start(new AnimeCatalog.Source() {
+            @Override
+            public Flux<Anime> findAll() {
+                return Flux.range(1, size).map(id -> new Anime((long) id, "Anime " + id, (long) id, UPDATED_AT));
+            }
+
+            @Override
+            public Flux<Anime> findChangedSince(long version) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Flux<Anime> findAllById(List<Long> ids) {
+                return Flux.empty();
+            }
+
+            @Override
+            public Mono<AnimeCollectionVersion> findCollectionVersion() {
+                return Mono.empty();
+            }
+        });
+        while (!catalog.isServing()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        catalog.destroy();
+    }
+
+    @Benchmark
+    public void upsert() {
+        long id = ThreadLocalRandom.current().nextLong(1, size + 1);
+        catalog.upsert(new Anime(id, "Renamed " + id, ++version, UPDATED_AT));
+    }
+
+    @Benchmark
+    public Anime findById() {
+        return catalog.findById(ThreadLocalRandom.current().nextLong(1, size + 1)).block();
+    }
+}
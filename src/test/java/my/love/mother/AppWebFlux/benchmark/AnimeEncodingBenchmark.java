@@ -0,0 +1,94 @@
+package my.love.mother.AppWebFlux.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.codec.AnimeJsonEncoder;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimeEncodingBenchmark {
+    private static final ResolvableType ANIME_TYPE = ResolvableType.forClass(Anime.class);
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder();
+    private AnimeJsonEncoder cachedEncoder;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private List<Anime> animeList;
+
+    @Setup
+    public void setUp() {
+        animeList = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            animeList.add(new Anime((long) index + 1, "Anime " + index));
+        }
+        AnimeProperties properties = new AnimeProperties();
+        properties.getJsonCache().setEnabled(true);
+        cachedEncoder = new AnimeJsonEncoder(new ObjectMapper(), new AnimeJsonCache(properties));
+    }
+
+    @Benchmark
+    public long encodeJsonArray() {
+        return encode(encoder, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public long encodeNdjson() {
+        return encode(encoder, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Benchmark
+    public long encodeJsonArrayCached() {
+        return encode(cachedEncoder, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public long encodeNdjsonCached() {
+        return encode(cachedEncoder, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Benchmark
+    public long encodeValue() {
+        return release(encoder.encodeValue(animeList.get(0), bufferFactory, ANIME_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public long encodeValueCached() {
+        return release(cachedEncoder.encodeValue(animeList.get(0), bufferFactory, ANIME_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    private <T> long encode(Encoder<T> encoder, MediaType mediaType) {
+        @SuppressWarnings("unchecked")
+        Flux<T> input = (Flux<T>) Flux.fromIterable(animeList);
+        Long bytes = encoder.encode(input, bufferFactory, ANIME_TYPE, mediaType, Collections.emptyMap())
+                .map(this::release)
+                .reduce(0L, Long::sum)
+                .block();
+        return bytes == null ? 0 : bytes;
+    }
+
+    private long release(DataBuffer buffer) {
+        long count = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package my.love.mother.AppWebFlux.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import my.love.mother.AppWebFlux.cache.AnimeCache;
+import my.love.mother.AppWebFlux.cache.AnimeCatalog;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.cache.InFlightLookups;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.config.LimiterProperties;
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.limiter.RepositoryLimiters;
+import my.love.mother.AppWebFlux.metrics.ReactiveMetrics;
+import my.love.mother.AppWebFlux.repository.AnimeRepository;
+import my.love.mother.AppWebFlux.service.AnimeService;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimeServiceBenchmark {
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private AnimeService animeService;
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"10", "500"})
+        private int batchSize;
+
+        private List<Anime> animeList;
+
+        @Setup
+        public void setUp() {
+            animeList = new ArrayList<>(batchSize);
+            for (int index = 0; index < batchSize; index++) {
+                animeList.add(new Anime(null, "Anime " + index));
+            }
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        AnimeProperties properties = new AnimeProperties();
+        properties.getCache().setEnabled(cacheEnabled);
+        AnimeRepository repository = Mockito.mock(AnimeRepository.class, Mockito.withSettings().stubOnly());
+        Anime anime = new Anime(1L, "Naruto");
+        Mockito.when(repository.findById(ArgumentMatchers.anyLong())).thenReturn(Mono.just(anime));
+        AtomicLong ids = new AtomicLong();
+        Mockito.when(repository.insertAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable((List<Anime>) invocation.getArgument(0))
+                        .map(saved -> saved.withId(ids.incrementAndGet())));
+        animeService = new AnimeService(repository, properties,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new AnimeCache(properties),
+                new InFlightLookups(),
+                new ReactiveMetrics(new SimpleMeterRegistry(), new ObservabilityProperties()),
+                new RepositoryLimiters(new LimiterProperties()),
+                new AnimeCatalog(properties),
+                new AnimeJsonCache(properties));
+    }
+
+    @Benchmark
+    public Anime findById() {
+        return animeService.findById(1L).block();
+    }
+
+    @Benchmark
+    public List<Anime> saveAll(Batch batch) {
+        return animeService.saveAll(batch.animeList).collectList().block();
+    }
+}
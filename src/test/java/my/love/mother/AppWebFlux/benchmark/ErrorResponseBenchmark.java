@@ -0,0 +1,84 @@
+package my.love.mother.AppWebFlux.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import my.love.mother.AppWebFlux.exceptions.CustomAttributes;
+import my.love.mother.AppWebFlux.exceptions.ExpectedException;
+import my.love.mother.AppWebFlux.exceptions.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorResponseBenchmark {
+    @Param({"false", "true"})
+    private boolean trace;
+
+    private ResponseStatusException notFound;
+    private CustomAttributes errorAttributes;
+    private GlobalExceptionHandler exceptionHandler;
+    private ServerRequest request;
+    private ErrorAttributeOptions options;
+    private String uri;
+    private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+
+    @Setup
+    public void setUp() throws Exception {
+        uri = trace ? "/anime/1?trace-true" : "/anime/1";
+        notFound = trace
+                ? new ResponseStatusException(HttpStatus.NOT_FOUND, "сообщение не найдено")
+                : new ExpectedException(HttpStatus.NOT_FOUND, "сообщение не найдено");
+        options = trace
+                ? ErrorAttributeOptions.of(ErrorAttributeOptions.Include.STACK_TRACE)
+                : ErrorAttributeOptions.defaults();
+        errorAttributes = new CustomAttributes();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        errorAttributes.storeErrorInformation(notFound, exchange);
+        request = ServerRequest.create(exchange, HandlerStrategies.withDefaults().messageReaders());
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        exceptionHandler = new GlobalExceptionHandler(errorAttributes, new WebProperties.Resources(), context,
+                codecConfigurer, new SimpleMeterRegistry());
+        exceptionHandler.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public ResponseStatusException createException() {
+        return trace
+                ? new ResponseStatusException(HttpStatus.NOT_FOUND, "сообщение не найдено")
+                : new ExpectedException(HttpStatus.NOT_FOUND, "сообщение не найдено");
+    }
+
+    @Benchmark
+    public Map<String, Object> getErrorAttributes() {
+        return errorAttributes.getErrorAttributes(request, options);
+    }
+
+    @Benchmark
+    public ServerWebExchange formatErrorResponse() {
+        // MockServerWebExchange.from builds a new codec configurer per exchange, which would dwarf the handler
+        ServerWebExchange exchange = new DefaultServerWebExchange(MockServerHttpRequest.get(uri).build(),
+                new MockServerHttpResponse(), new DefaultWebSessionManager(), codecConfigurer,
+                new AcceptHeaderLocaleContextResolver());
+        exceptionHandler.handle(exchange, notFound).block();
+        return exchange;
+    }
+}
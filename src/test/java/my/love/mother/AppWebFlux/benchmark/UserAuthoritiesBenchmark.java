@@ -0,0 +1,26 @@
+package my.love.mother.AppWebFlux.benchmark;
+
+import my.love.mother.AppWebFlux.domain.Role;
+import my.love.mother.AppWebFlux.domain.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserAuthoritiesBenchmark {
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User(1L, "Nata", "Nata", "{bcrypt}hash", Role.ROLE_ADMIN);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
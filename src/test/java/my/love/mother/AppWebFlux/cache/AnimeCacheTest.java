@@ -0,0 +1,133 @@
+package my.love.mother.AppWebFlux.cache;
+
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidAnime;
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidUpdatedAnime;
+
+class AnimeCacheTest {
+    private final Anime anime = createValidAnime();
+    private final AtomicInteger loads = new AtomicInteger();
+    private AnimeProperties animeProperties;
+
+    @BeforeEach
+    public void setUp() {
+        animeProperties = new AnimeProperties();
+        loads.set(0);
+    }
+
+    private Function<Long, Mono<Anime>> loader(Mono<Anime> result) {
+        return id -> Mono.defer(() -> {
+            loads.incrementAndGet();
+            return result;
+        });
+    }
+
+    @Test
+    @DisplayName("get loads the anime once and serves the next lookups from the cache")
+    public void get_LoadsOnce_WhenAnimeExists() {
+        AnimeCache animeCache = new AnimeCache(animeProperties);
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("get remembers a missing anime until it is put")
+    public void get_CachesMiss_UntilAnimeIsPut() {
+        AnimeCache animeCache = new AnimeCache(animeProperties);
+        StepVerifier.create(animeCache.get(1L, loader(Mono.empty())))
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.empty())))
+                .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+
+        animeCache.put(anime);
+        StepVerifier.create(animeCache.get(1L, loader(Mono.empty())))
+                .expectNext(anime)
+                .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("evict forces the next lookup to reach the loader")
+    public void evict_ReloadsAnime_WhenAnimeWasCached() {
+        AnimeCache animeCache = new AnimeCache(animeProperties);
+        animeCache.put(anime);
+        animeCache.evict(anime.getId());
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(createValidUpdatedAnime()))))
+                .expectNext(createValidUpdatedAnime())
+                .verifyComplete();
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("a miss whose load started before the anime was evicted or put is not remembered")
+    public void get_DoesNotCacheMiss_WhenLoadStartedBeforeInvalidation() {
+        AnimeCache animeCache = new AnimeCache(animeProperties);
+        Sinks.One<Anime> beforeEvict = Sinks.one();
+        StepVerifier.create(animeCache.get(1L, loader(beforeEvict.asMono())))
+                .then(() -> {
+                    animeCache.evict(1L);
+                    beforeEvict.tryEmitEmpty();
+                })
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+
+        animeCache.evict(1L);
+        Sinks.One<Anime> beforePut = Sinks.one();
+        StepVerifier.create(animeCache.get(1L, loader(beforePut.asMono())))
+                .then(() -> {
+                    animeCache.put(anime);
+                    beforePut.tryEmitEmpty();
+                })
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.empty())))
+                .expectNext(anime)
+                .verifyComplete();
+
+        animeCache.evict(1L);
+        Sinks.One<Anime> batchBeforeEvict = Sinks.one();
+        StepVerifier.create(animeCache.getAll(Collections.singletonList(1L), ids -> batchBeforeEvict.asMono().flux()))
+                .then(() -> {
+                    animeCache.evict(1L);
+                    batchBeforeEvict.tryEmitEmpty();
+                })
+                .expectNext(Collections.emptyMap())
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        Assertions.assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("get always reaches the loader when the cache is disabled")
+    public void get_AlwaysLoads_WhenCacheIsDisabled() {
+        animeProperties.getCache().setEnabled(false);
+        AnimeCache animeCache = new AnimeCache(animeProperties);
+        animeCache.put(anime);
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        StepVerifier.create(animeCache.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        Assertions.assertEquals(2, loads.get());
+    }
+}
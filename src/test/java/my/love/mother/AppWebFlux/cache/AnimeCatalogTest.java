@@ -0,0 +1,359 @@
+package my.love.mother.AppWebFlux.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import org.junit.jupiter.api.*;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class AnimeCatalogTest {
+    private static final Instant UPDATED_AT = Instant.parse("2022-08-01T10:15:30Z");
+    private final Anime naruto = new Anime(1L, "Naruto");
+    private final Anime bleach = new Anime(2L, "Bleach");
+    private final Anime gintama = new Anime(3L, "Gintama");
+    private AnimeProperties animeProperties;
+    private AnimeCatalog animeCatalog;
+
+    @BeforeAll
+    public static void BlockHoundSetUp() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        animeProperties = new AnimeProperties();
+        animeProperties.getCatalog().setEnabled(true);
+        animeCatalog = new AnimeCatalog(animeProperties);
+    }
+
+    @Test
+    @DisplayName("reconcile loads the source and serves the anime in id order")
+    public void reconcile_LoadsSource_WhenSuccessful() {
+        Assertions.assertFalse(animeCatalog.isServing());
+        StepVerifier.create(animeCatalog.reconcile(Flux.just(naruto, bleach, gintama)))
+                .verifyComplete();
+
+        Assertions.assertTrue(animeCatalog.isServing());
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto, bleach, gintama)
+                .verifyComplete();
+        StepVerifier.create(animeCatalog.findById(2L))
+                .expectNext(bleach)
+                .verifyComplete();
+        StepVerifier.create(animeCatalog.findById(4L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("upsert, remove and removeByNamePrefix are applied to the loaded snapshot")
+    public void deltas_UpdateSnapshot_WhenCatalogIsServing() {
+        animeCatalog.reconcile(Flux.just(naruto, bleach, gintama)).block();
+
+        animeCatalog.upsertAll(Arrays.asList(new Anime(5L, "Haikyuu"), naruto.withName("Naruto Shippuden")));
+        animeCatalog.remove(2L);
+        animeCatalog.removeByNamePrefix("Gin");
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withName("Naruto Shippuden"), new Anime(5L, "Haikyuu"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("anime without a name are served, survive a prefix delete and are counted in the memory estimate")
+    public void deltas_KeepAnimeWithoutName_WhenRemovingByNamePrefix() {
+        Anime unnamed = new Anime(4L, null);
+        animeCatalog.reconcile(Flux.just(naruto, unnamed)).block();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        animeCatalog.bindTo(registry);
+
+        animeCatalog.removeByNamePrefix("Nar");
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(unnamed)
+                .verifyComplete();
+        Assertions.assertTrue(registry.get("anime.catalog.memory").gauge().value() > 0);
+    }
+
+    @Test
+    @DisplayName("deltas applied while a reload is running are replayed on the reloaded snapshot")
+    public void reconcile_ReplaysDeltas_WhenWritesHappenDuringReload() {
+        Sinks.Many<Anime> source = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(animeCatalog.reconcile(source.asFlux()))
+                .then(() -> {
+                    animeCatalog.upsert(new Anime(5L, "Haikyuu"));
+                    animeCatalog.removeAll(Collections.singletonList(1L));
+                    source.tryEmitNext(naruto);
+                    source.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(new Anime(5L, "Haikyuu"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("the collection version matches the database aggregate and is unknown after a delta without a version")
+    public void findCollectionVersion_IsUnknown_AfterUnversionedDelta() {
+        Instant updatedAt = Instant.parse("2022-08-01T10:15:30Z");
+        animeCatalog.reconcile(Flux.just(naruto.withVersion(4L).withUpdatedAt(updatedAt),
+                bleach.withVersion(9L).withUpdatedAt(updatedAt))).block();
+
+        StepVerifier.create(animeCatalog.findCollectionVersion())
+                .expectNext(new AnimeCollectionVersion(2, 13))
+                .verifyComplete();
+        StepVerifier.create(animeCatalog.findById(1L))
+                .expectNext(naruto.withVersion(4L).withUpdatedAt(updatedAt))
+                .verifyComplete();
+
+        animeCatalog.remove(2L);
+        StepVerifier.create(animeCatalog.findCollectionVersion())
+                .expectNext(new AnimeCollectionVersion(1, 4))
+                .verifyComplete();
+
+        animeCatalog.upsert(gintama);
+        StepVerifier.create(animeCatalog.findCollectionVersion())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("a failed reload keeps serving the previous snapshot")
+    public void reconcile_KeepsSnapshot_WhenSourceFails() {
+        animeCatalog.reconcile(Flux.just(naruto)).block();
+
+        StepVerifier.create(animeCatalog.reconcile(Flux.concat(Flux.just(bleach), Flux.error(new IllegalStateException("boom")))))
+                .verifyError(IllegalStateException.class);
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("a disabled catalog never subscribes to the source and ignores deltas")
+    public void start_IsIgnored_WhenCatalogIsDisabled() {
+        animeProperties.getCatalog().setEnabled(false);
+        AnimeCatalog disabled = new AnimeCatalog(animeProperties);
+        AtomicInteger subscriptions = new AtomicInteger();
+        disabled.upsert(naruto);
+        disabled.start(new StubSource(Flux.just(naruto).doOnSubscribe(subscription -> subscriptions.incrementAndGet()),
+                Flux.empty(), Mono.empty()));
+        Assertions.assertFalse(disabled.isServing());
+        Assertions.assertEquals(0, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName("an incremental reconcile fetches rows above the highest version without reloading the table")
+    public void reconcile_FetchesChangedRows_WhenSnapshotIsLoaded() {
+        AtomicInteger fullLoads = new AtomicInteger();
+        AtomicLong changedSince = new AtomicLong(-1);
+        Flux<Anime> table = Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))
+                .doOnSubscribe(subscription -> fullLoads.incrementAndGet());
+        AnimeCatalog.Source source = new StubSource(table,
+                Flux.just(naruto.withName("Naruto Shippuden").withVersion(11L).withUpdatedAt(UPDATED_AT), gintama.withVersion(12L).withUpdatedAt(UPDATED_AT)),
+                Mono.just(new AnimeCollectionVersion(3, 32))) {
+            @Override
+            public Flux<Anime> findChangedSince(long version) {
+                changedSince.set(version);
+                return super.findChangedSince(version);
+            }
+        };
+
+        StepVerifier.create(animeCatalog.reconcile(source, true))
+                .verifyComplete();
+        StepVerifier.create(animeCatalog.reconcile(source, false))
+                .verifyComplete();
+
+        Assertions.assertEquals(1, fullLoads.get());
+        Assertions.assertEquals(9L, changedSince.get());
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withName("Naruto Shippuden").withVersion(11L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT), gintama.withVersion(12L).withUpdatedAt(UPDATED_AT))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("a refresh reads entries of unknown version again by id and drops the ones that no longer exist")
+    public void reconcile_ResolvesUnknownVersions_WhenRowVersionDidNotGrow() {
+        AtomicInteger fullLoads = new AtomicInteger();
+        Flux<Anime> table = Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))
+                .doOnSubscribe(subscription -> fullLoads.incrementAndGet());
+        AnimeCatalog.Source source = new StubSource(table, Flux.empty(),
+                Flux.just(naruto.withName("Naruto Shippuden").withVersion(4L).withUpdatedAt(UPDATED_AT)), Mono.empty());
+        animeCatalog.reconcile(source, true).block();
+        animeCatalog.upsertAll(Arrays.asList(naruto.withName("Naruto Shippuden"), gintama));
+        StepVerifier.create(animeCatalog.findCollectionVersion())
+                .verifyComplete();
+
+        StepVerifier.create(animeCatalog.reconcile(source, false))
+                .verifyComplete();
+
+        Assertions.assertEquals(1, fullLoads.get());
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withName("Naruto Shippuden").withVersion(4L).withUpdatedAt(UPDATED_AT),
+                        bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))
+                .verifyComplete();
+        StepVerifier.create(animeCatalog.findCollectionVersion())
+                .expectNext(new AnimeCollectionVersion(2, 13))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("deltas applied while changed rows are fetched win over the fetched rows")
+    public void reconcile_ReplaysDeltas_WhenWritesHappenDuringRefresh() {
+        Sinks.Many<Anime> changed = Sinks.many().unicast().onBackpressureBuffer();
+        animeCatalog.reconcile(Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))).block();
+
+        StepVerifier.create(animeCatalog.reconcile(new StubSource(Flux.empty(), changed.asFlux(), Mono.empty()), false))
+                .then(() -> {
+                    animeCatalog.upsert(naruto.withName("Naruto Shippuden").withVersion(12L).withUpdatedAt(UPDATED_AT));
+                    animeCatalog.remove(2L);
+                    changed.tryEmitNext(naruto.withName("Boruto").withVersion(11L).withUpdatedAt(UPDATED_AT));
+                    changed.tryEmitNext(bleach.withName("Bleach TYBW").withVersion(10L).withUpdatedAt(UPDATED_AT));
+                    changed.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withName("Naruto Shippuden").withVersion(12L).withUpdatedAt(UPDATED_AT))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("single-row writes are served on top of the loaded table and merged into it by a refresh")
+    public void deltas_AreMergedIntoTable_WhenRefreshed() {
+        animeCatalog.reconcile(Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT),
+                gintama.withVersion(10L).withUpdatedAt(UPDATED_AT))).block();
+
+        animeCatalog.upsert(new Anime(5L, "Haikyuu", 12L, UPDATED_AT));
+        animeCatalog.upsert(naruto.withName("Naruto Shippuden").withVersion(11L).withUpdatedAt(UPDATED_AT));
+        animeCatalog.remove(2L);
+        animeCatalog.upsert(new Anime(4L, "Gin no Saji", 13L, UPDATED_AT));
+        animeCatalog.removeByNamePrefix("Gin");
+
+        for (int refreshes = 0; refreshes < 2; refreshes++) {
+            StepVerifier.create(animeCatalog.findAll())
+                    .expectNext(naruto.withName("Naruto Shippuden").withVersion(11L).withUpdatedAt(UPDATED_AT), new Anime(5L, "Haikyuu", 12L, UPDATED_AT))
+                    .verifyComplete();
+            StepVerifier.create(animeCatalog.findById(3L))
+                    .verifyComplete();
+            StepVerifier.create(animeCatalog.findCollectionVersion())
+                    .expectNext(new AnimeCollectionVersion(2, 23))
+                    .verifyComplete();
+            animeCatalog.reconcile(new StubSource(Flux.error(new IllegalStateException("unexpected reload")), Flux.empty(), Mono.empty()), false).block();
+        }
+    }
+
+    @Test
+    @DisplayName("an overlay that outgrows its limit asks for a refresh before the reconcile interval")
+    public void deltas_RequestRefresh_WhenOverlayOutgrowsLimit() {
+        AtomicInteger refreshes = new AtomicInteger();
+        animeProperties.getCatalog().setReconcileInterval(Duration.ofHours(1));
+        animeCatalog.start(new StubSource(Flux.just(naruto.withVersion(1L).withUpdatedAt(UPDATED_AT)), Flux.empty(), Mono.empty()) {
+            @Override
+            public Flux<Anime> findChangedSince(long version) {
+                refreshes.incrementAndGet();
+                return super.findChangedSince(version);
+            }
+        });
+        try {
+            Assertions.assertTrue(animeCatalog.isServing());
+
+            for (long id = 2; id <= AnimeCatalog.OVERLAY_LIMIT + 1; id++) {
+                animeCatalog.upsert(new Anime(id, "Anime " + id, id, UPDATED_AT));
+                Assertions.assertEquals(0, refreshes.get());
+            }
+            animeCatalog.upsert(new Anime(AnimeCatalog.OVERLAY_LIMIT + 2L, "Anime", AnimeCatalog.OVERLAY_LIMIT + 2L, UPDATED_AT));
+
+            StepVerifier.create(Mono.fromCallable(refreshes::get).filter(count -> count > 0).repeatWhenEmpty(50, attempts -> attempts.delayElements(Duration.ofMillis(10))))
+                    .expectNext(1)
+                    .verifyComplete();
+            StepVerifier.create(animeCatalog.findAll().count())
+                    .expectNext(AnimeCatalog.OVERLAY_LIMIT + 2L)
+                    .verifyComplete();
+        } finally {
+            animeCatalog.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("a snapshot that drifted from the table's count and version sum is reloaded on verification")
+    public void verify_ReloadsTable_WhenCollectionVersionDiffers() {
+        animeCatalog.reconcile(Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))).block();
+        AnimeCatalog.Source source = new StubSource(Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT)), Flux.empty(),
+                Mono.just(new AnimeCollectionVersion(1, 4)));
+
+        StepVerifier.create(animeCatalog.verify(source))
+                .verifyComplete();
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("verification leaves the snapshot alone when it matches the table")
+    public void verify_KeepsSnapshot_WhenCollectionVersionMatches() {
+        animeCatalog.reconcile(Flux.just(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))).block();
+        AnimeCatalog.Source source = new StubSource(Flux.error(new IllegalStateException("unexpected reload")),
+                Flux.empty(), Mono.just(new AnimeCollectionVersion(2, 13)));
+
+        StepVerifier.create(animeCatalog.verify(source))
+                .verifyComplete();
+
+        StepVerifier.create(animeCatalog.findAll())
+                .expectNext(naruto.withVersion(4L).withUpdatedAt(UPDATED_AT), bleach.withVersion(9L).withUpdatedAt(UPDATED_AT))
+                .verifyComplete();
+    }
+
+    private static class StubSource implements AnimeCatalog.Source {
+        private final Flux<Anime> all;
+        private final Flux<Anime> changed;
+        private final Flux<Anime> byId;
+        private final Mono<AnimeCollectionVersion> collectionVersion;
+
+        StubSource(Flux<Anime> all, Flux<Anime> changed, Mono<AnimeCollectionVersion> collectionVersion) {
+            this(all, changed, Flux.empty(), collectionVersion);
+        }
+
+        StubSource(Flux<Anime> all, Flux<Anime> changed, Flux<Anime> byId, Mono<AnimeCollectionVersion> collectionVersion) {
+            this.all = all;
+            this.changed = changed;
+            this.byId = byId;
+            this.collectionVersion = collectionVersion;
+        }
+
+        @Override
+        public Flux<Anime> findAll() {
+            return all;
+        }
+
+        @Override
+        public Flux<Anime> findChangedSince(long version) {
+            return changed;
+        }
+
+        @Override
+        public Flux<Anime> findAllById(List<Long> ids) {
+            return byId;
+        }
+
+        @Override
+        public Mono<AnimeCollectionVersion> findCollectionVersion() {
+            return collectionVersion;
+        }
+    }
+}
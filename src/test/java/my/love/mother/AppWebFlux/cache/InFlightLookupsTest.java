@@ -0,0 +1,80 @@
+package my.love.mother.AppWebFlux.cache;
+
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidAnime;
+
+class InFlightLookupsTest {
+    private final Anime anime = createValidAnime();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final InFlightLookups inFlightLookups = new InFlightLookups();
+
+    private Function<Long, Mono<Anime>> loader(Mono<Anime> result) {
+        return id -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+
+    @Test
+    @DisplayName("get shares one load between concurrent lookups of the same id")
+    public void get_SharesLoad_WhenLookupIsInFlight() {
+        Sinks.One<Anime> result = Sinks.one();
+        Function<Long, Mono<Anime>> loader = loader(result.asMono());
+
+        StepVerifier first = StepVerifier.create(inFlightLookups.get(1L, loader))
+                .expectNext(anime)
+                .expectComplete()
+                .verifyLater();
+        StepVerifier second = StepVerifier.create(inFlightLookups.get(1L, loader))
+                .expectNext(anime)
+                .expectComplete()
+                .verifyLater();
+        result.tryEmitValue(anime);
+
+        first.verify();
+        second.verify();
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, inFlightLookups.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("get starts a new load once the previous one has completed")
+    public void get_LoadsAgain_WhenPreviousLookupCompleted() {
+        StepVerifier.create(inFlightLookups.get(1L, loader(Mono.just(anime))))
+                .expectNext(anime)
+                .verifyComplete();
+        StepVerifier.create(inFlightLookups.get(1L, loader(Mono.empty())))
+                .verifyComplete();
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(0, inFlightLookups.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("get runs a new load after evict instead of joining the one already in flight")
+    public void get_LoadsAgain_WhenEvictedWhileInFlight() {
+        Sinks.One<Anime> stale = Sinks.one();
+        Anime updated = anime.withName("Fantastic Country Belarus!!!");
+
+        StepVerifier before = StepVerifier.create(inFlightLookups.get(1L, loader(stale.asMono())))
+                .expectNext(anime)
+                .expectComplete()
+                .verifyLater();
+        inFlightLookups.evict(1L);
+        StepVerifier.create(inFlightLookups.get(1L, loader(Mono.just(updated))))
+                .expectNext(updated)
+                .verifyComplete();
+        stale.tryEmitValue(anime);
+
+        before.verify();
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(0, inFlightLookups.getCoalescedCount());
+    }
+}
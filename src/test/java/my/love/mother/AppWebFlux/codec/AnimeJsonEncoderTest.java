@@ -0,0 +1,101 @@
+package my.love.mother.AppWebFlux.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.domain.Anime;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class AnimeJsonEncoderTest {
+    private static final ResolvableType ANIME_TYPE = ResolvableType.forClass(Anime.class);
+
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private ObjectMapper objectMapper;
+    private Jackson2JsonEncoder jacksonEncoder;
+    private AnimeJsonEncoder animeJsonEncoder;
+
+    @BeforeEach
+    public void setUp() {
+        AnimeProperties animeProperties = new AnimeProperties();
+        animeProperties.getJsonCache().setEnabled(true);
+        objectMapper = Mockito.spy(new ObjectMapper());
+        jacksonEncoder = new Jackson2JsonEncoder(new ObjectMapper());
+        animeJsonEncoder = new AnimeJsonEncoder(objectMapper, new AnimeJsonCache(animeProperties));
+    }
+
+    private static List<Anime> animeList(int size) {
+        List<Anime> animeList = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            animeList.add(new Anime((long) index + 1, "Анимэ \"" + index + "\""));
+        }
+        return animeList;
+    }
+
+    private <T> String encode(Encoder<T> encoder, Flux<? extends T> input, MimeType mimeType) {
+        return DataBufferUtils.join(encoder.encode(input, bufferFactory, ANIME_TYPE, mimeType, Collections.emptyMap()))
+                .map(buffer -> {
+                    String json = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return json;
+                })
+                .block();
+    }
+
+    @Test
+    @DisplayName("encode writes the same JSON arrays as Jackson2JsonEncoder, including empty and multi-buffer ones")
+    public void encode_MatchesJackson_ForJsonArrays() {
+        for (int size : new int[]{0, 1, 600}) {
+            List<Anime> animeList = animeList(size);
+            Assertions.assertEquals(encode(jacksonEncoder, Flux.fromIterable(animeList), MediaType.APPLICATION_JSON),
+                    encode(animeJsonEncoder, Flux.fromIterable(animeList), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Test
+    @DisplayName("encode writes the same NDJSON stream as Jackson2JsonEncoder")
+    public void encode_MatchesJackson_ForNdjson() {
+        List<Anime> animeList = animeList(3);
+        Assertions.assertEquals(encode(jacksonEncoder, Flux.fromIterable(animeList), MediaType.APPLICATION_NDJSON),
+                encode(animeJsonEncoder, Flux.fromIterable(animeList), MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    @DisplayName("encodeValue serializes an anime once and re-encodes it only after its name changed")
+    public void encodeValue_ReusesCachedBytes_UntilNameChanges() throws Exception {
+        Anime anime = new Anime(1L, "Naruto");
+        for (Anime value : new Anime[]{anime, anime, anime.withName("Naruto Shippuden")}) {
+            DataBuffer buffer = animeJsonEncoder.encodeValue(value, bufferFactory, ANIME_TYPE, MediaType.APPLICATION_JSON, null);
+            Assertions.assertEquals(new ObjectMapper().writeValueAsString(value), buffer.toString(StandardCharsets.UTF_8));
+            DataBufferUtils.release(buffer);
+        }
+        BDDMockito.verify(objectMapper, BDDMockito.times(2)).writeValueAsBytes(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("canEncode only accepts anime as UTF-8 JSON or NDJSON")
+    public void canEncode_AcceptsAnimeJsonOnly() {
+        Assertions.assertTrue(animeJsonEncoder.canEncode(ANIME_TYPE, MediaType.APPLICATION_JSON));
+        Assertions.assertTrue(animeJsonEncoder.canEncode(ANIME_TYPE, MediaType.APPLICATION_NDJSON));
+        Assertions.assertFalse(animeJsonEncoder.canEncode(ANIME_TYPE, MediaType.TEXT_EVENT_STREAM));
+        Assertions.assertFalse(animeJsonEncoder.canEncode(ANIME_TYPE, new MediaType("application", "json", StandardCharsets.ISO_8859_1)));
+        Assertions.assertFalse(animeJsonEncoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON));
+    }
+}
@@ -1,6 +1,10 @@
 package my.love.mother.AppWebFlux.controller;
 
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import my.love.mother.AppWebFlux.domain.BatchDeleteResult;
+import my.love.mother.AppWebFlux.domain.BatchSaveResult;
+import my.love.mother.AppWebFlux.domain.BulkFetchResult;
 import my.love.mother.AppWebFlux.service.AnimeService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +12,7 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.blockhound.BlockHound;
 import reactor.blockhound.BlockingOperationError;
@@ -17,11 +22,14 @@ import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createAnimeToBeSaved;
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidAnime;
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createVersionedAnime;
 
 @ExtendWith(SpringExtension.class)
 class AnimeControllerTest {
@@ -40,12 +48,26 @@ class AnimeControllerTest {
 
     @BeforeEach
     public void setUp() {
-        BDDMockito.when(animeService.findAll())
-                .thenReturn(Flux.just(anime));
+        BDDMockito.when(animeService.findAllWithVersion(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> Mono.just(invocation.<BiFunction<AnimeCollectionVersion, Flux<Anime>, ?>>getArgument(0)
+                        .apply(new AnimeCollectionVersion(1, 7), Flux.just(anime))));
 
         BDDMockito.when(animeService.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Mono.just(anime));
 
+        BDDMockito.when(animeService.findAllById(Arrays.asList(1L, 2L)))
+                .thenReturn(Mono.just(new BulkFetchResult(Collections.singletonList(anime), Collections.singletonList(2L))));
+
+        BDDMockito.when(animeService.streamAll())
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeService.findPage(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeService.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyBoolean(),
+                        ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+                .thenReturn(Flux.just(anime));
+
         BDDMockito.when(animeService.save(createAnimeToBeSaved()))
                 .thenReturn(Mono.just(anime));
 
@@ -53,11 +75,25 @@ class AnimeControllerTest {
                         .saveAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
                         .thenReturn(Flux.just(anime, anime));
 
+        BDDMockito.when(animeService
+                        .upsertAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
+                        .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(animeService
+                        .saveAllValid(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
+                        .thenReturn(Mono.just(new BatchSaveResult(Arrays.asList(anime, anime), Collections.emptyList())));
+
         BDDMockito.when(animeService.delete(ArgumentMatchers.anyLong()))
                 .thenReturn(Mono.empty());
 
         BDDMockito.when(animeService.update(createValidAnime()))
                 .thenReturn(Mono.empty());
+
+        BDDMockito.when(animeService.deleteAll(Arrays.asList(1L, 2L)))
+                .thenReturn(Mono.just(new BatchDeleteResult(2)));
+
+        BDDMockito.when(animeService.deleteByNamePrefix("Fantastic"))
+                .thenReturn(Mono.just(new BatchDeleteResult(1)));
     }
 
     @Test
@@ -78,7 +114,42 @@ class AnimeControllerTest {
     @Test
     @DisplayName("listAll returns a flux of anime")
     public void findAll_ReturnsFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(controller.listAll().flatMapMany(ResponseEntity::getBody))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("listAll tags the list with the collection version")
+    public void listAll_ReturnsETag_WhenCollectionVersionIsKnown() {
         StepVerifier.create(controller.listAll())
+                .assertNext(response -> Assertions.assertEquals("\"1-7\"", response.getHeaders().getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("streamAll returns a flux of anime")
+    public void streamAll_ReturnsFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(controller.streamAll())
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("listPage returns a flux of anime after the given id")
+    public void listPage_ReturnsFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(controller.listPage(0L, 10))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search returns a flux of anime matching the query")
+    public void search_ReturnsFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(controller.search("Tensei", false, 0L, 10))
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
@@ -87,12 +158,42 @@ class AnimeControllerTest {
     @Test
     @DisplayName("findById returns a mono with of anime when it exists")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
-        StepVerifier.create(controller.findById(1L))
+        StepVerifier.create(controller.findById(1L).map(ResponseEntity::getBody))
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("findById adds ETag and Last-Modified only when the anime carries its version")
+    public void findById_ReturnsValidators_WhenAnimeIsVersioned() {
+        Anime versioned = createVersionedAnime();
+        BDDMockito.when(animeService.findById(2L))
+                .thenReturn(Mono.just(versioned));
+
+        StepVerifier.create(controller.findById(2L))
+                .assertNext(response -> {
+                    Assertions.assertEquals("\"7\"", response.getHeaders().getETag());
+                    Assertions.assertEquals(versioned.getUpdatedAt().toEpochMilli(), response.getHeaders().getLastModified());
+                })
+                .verifyComplete();
+        StepVerifier.create(controller.findById(1L))
+                .assertNext(response -> {
+                    Assertions.assertNull(response.getHeaders().getETag());
+                    Assertions.assertEquals(-1, response.getHeaders().getLastModified());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAllById returns the found anime and the missing ids")
+    public void findAllById_ReturnsBulkFetchResult_WhenSuccessful() {
+        StepVerifier.create(controller.findAllById(Arrays.asList(1L, 2L)))
+                .expectSubscription()
+                .expectNext(new BulkFetchResult(Collections.singletonList(anime), Collections.singletonList(2L)))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("save create an anime when successful")
     public void save_CreateAnime_WhenSuccessful() {
@@ -113,6 +214,26 @@ class AnimeControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("batchUpsert returns one anime per distinct name when successful")
+    public void batchUpsert_ReturnsDistinctAnime_WhenSuccessful() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        StepVerifier.create(controller.batchUpsert(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("saveBatch in partial mode returns the saved anime and the errors when successful")
+    public void saveBatchPartial_ReturnsBatchSaveResult_WhenSuccessful() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        StepVerifier.create(controller.batchSavePartial(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(new BatchSaveResult(Arrays.asList(anime, anime), Collections.emptyList()))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("delete removes the anime when successful")
     public void delete_RemoveAnime_WhenSuccessful() {
@@ -128,4 +249,22 @@ class AnimeControllerTest {
                 .expectSubscription()
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("batchDelete returns the number of removed anime when successful")
+    public void batchDelete_ReturnsDeletedCount_WhenSuccessful() {
+        StepVerifier.create(controller.batchDelete(Arrays.asList(1L, 2L)))
+                .expectSubscription()
+                .expectNext(new BatchDeleteResult(2))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("deleteByNamePrefix returns the number of removed anime when successful")
+    public void deleteByNamePrefix_ReturnsDeletedCount_WhenSuccessful() {
+        StepVerifier.create(controller.deleteByNamePrefix("Fantastic"))
+                .expectSubscription()
+                .expectNext(new BatchDeleteResult(1))
+                .verifyComplete();
+    }
 }
\ No newline at end of file
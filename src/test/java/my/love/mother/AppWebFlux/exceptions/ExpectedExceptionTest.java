@@ -0,0 +1,45 @@
+package my.love.mother.AppWebFlux.exceptions;
+
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ExpectedExceptionTest {
+    private final ErrorTraceFilter filter = new ErrorTraceFilter();
+
+    private Throwable errorFor(String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        Throwable[] error = new Throwable[1];
+        StepVerifier.create(filter.filter(exchange, filtered -> ExpectedException.<Void>mono(HttpStatus.NOT_FOUND, "сообщение не найдено")
+                        .onErrorResume(throwable -> {
+                            error[0] = throwable;
+                            return Mono.empty();
+                        })))
+                .verifyComplete();
+        return error[0];
+    }
+
+    @Test
+    @DisplayName("expected errors carry no stack trace by default")
+    public void mono_CreatesStacklessException_WhenTraceIsNotRequested() {
+        Throwable error = errorFor("/anime/1");
+
+        Assertions.assertTrue(error instanceof ExpectedException);
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) error).getStatus());
+        Assertions.assertEquals(0, error.getStackTrace().length);
+    }
+
+    @Test
+    @DisplayName("trace-true requests get a full stack trace")
+    public void mono_CreatesRegularException_WhenTraceIsRequested() {
+        Throwable error = errorFor("/anime/1?trace-true");
+
+        Assertions.assertFalse(error instanceof ExpectedException);
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) error).getStatus());
+        Assertions.assertTrue(error.getStackTrace().length > 0);
+    }
+}
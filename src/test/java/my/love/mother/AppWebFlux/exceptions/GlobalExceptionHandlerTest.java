@@ -0,0 +1,96 @@
+package my.love.mother.AppWebFlux.exceptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+class GlobalExceptionHandlerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GlobalExceptionHandler exceptionHandler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        exceptionHandler = new GlobalExceptionHandler(new CustomAttributes(), new WebProperties.Resources(), context,
+                ServerCodecConfigurer.create(), meterRegistry);
+        exceptionHandler.afterPropertiesSet();
+    }
+
+    private MockServerWebExchange handle(Throwable error) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+        StepVerifier.create(exceptionHandler.handle(exchange, error))
+                .verifyComplete();
+        return exchange;
+    }
+
+    @Test
+    @DisplayName("handle returns 503 with Retry-After when no database connection could be acquired")
+    public void handle_ReturnsServiceUnavailable_WhenConnectionPoolIsExhausted() {
+        MockServerWebExchange exchange = handle(new DataAccessResourceFailureException("Failed to obtain R2DBC Connection"));
+
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        Assertions.assertEquals("1", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(1.0, meterRegistry.get("http.server.errors").tag("status", "503").counter().count());
+    }
+
+    @Test
+    @DisplayName("handle returns 503 when a transaction could not get a connection")
+    public void handle_ReturnsServiceUnavailable_WhenTransactionCannotStart() {
+        MockServerWebExchange exchange = handle(new CannotCreateTransactionException("Could not open R2DBC Connection"));
+
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("handle keeps the status of a ResponseStatusException")
+    public void handle_ReturnsOriginalStatus_WhenResponseStatusException() {
+        MockServerWebExchange exchange = handle(new ResponseStatusException(HttpStatus.NOT_FOUND, "сообщение не найдено"));
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        Assertions.assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("expected errors get the same body as the default error attributes, without a stack trace")
+    public void handle_ReturnsDefaultBody_WhenExpectedException() {
+        MockServerWebExchange exchange = handle(new ExpectedException(HttpStatus.NOT_FOUND, "сообщение не найдено"));
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        Map<String, Object> cached = errorAttributes(new ExpectedException(HttpStatus.NOT_FOUND, "сообщение не найдено"),
+                ErrorAttributeOptions.defaults());
+        Map<String, Object> resolved = errorAttributes(new ResponseStatusException(HttpStatus.NOT_FOUND, "сообщение не найдено"),
+                ErrorAttributeOptions.of(ErrorAttributeOptions.Include.MESSAGE));
+        Assertions.assertEquals(new ArrayList<>(resolved.keySet()), new ArrayList<>(cached.keySet()));
+        for (String perRequest : new String[]{"timestamp", "requestId"}) {
+            cached.remove(perRequest);
+            resolved.remove(perRequest);
+        }
+        Assertions.assertEquals(new ArrayList<>(resolved.entrySet()), new ArrayList<>(cached.entrySet()));
+        Assertions.assertFalse(exchange.getResponse().getBodyAsString().block().contains("\"trace\""));
+    }
+
+    private Map<String, Object> errorAttributes(Throwable error, ErrorAttributeOptions options) {
+        CustomAttributes errorAttributes = new CustomAttributes();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+        errorAttributes.storeErrorInformation(error, exchange);
+        return errorAttributes.getErrorAttributes(
+                ServerRequest.create(exchange, HandlerStrategies.withDefaults().messageReaders()), options);
+    }
+}
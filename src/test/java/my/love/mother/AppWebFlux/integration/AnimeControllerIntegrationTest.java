@@ -1,6 +1,9 @@
 package my.love.mother.AppWebFlux.integration;
 
+import my.love.mother.AppWebFlux.cache.AnimeCache;
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import my.love.mother.AppWebFlux.domain.TokenResponse;
 import my.love.mother.AppWebFlux.repository.AnimeRepository;
 import my.love.mother.AppWebFlux.util.WebTestClientUtil;
 import org.junit.jupiter.api.*;
@@ -11,6 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -21,12 +27,15 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createAnimeToBeSaved;
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidAnime;
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createVersionedAnime;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -35,6 +44,9 @@ public class AnimeControllerIntegrationTest {
     @Autowired
     private WebTestClientUtil webTestClientUtil;
 
+    @Autowired
+    private AnimeCache animeCache;
+
     @MockBean
     private AnimeRepository repository;
 
@@ -54,25 +66,35 @@ public class AnimeControllerIntegrationTest {
         testUser = webTestClientUtil.authClient("user","mama");
         testAdmin = webTestClientUtil.authClient("Nata","mama");
         testInvalid = webTestClientUtil.authClient("x","x");
+        animeCache.invalidateAll();
 
         BDDMockito.when(repository.findAll())
                 .thenReturn(Flux.just(anime));
 
+        BDDMockito.when(repository.findCollectionVersion())
+                .thenReturn(Mono.just(new AnimeCollectionVersion(1, 7)));
+
         BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Mono.just(anime));
 
+        BDDMockito.when(repository.findPageAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(repository.searchByName(ArgumentMatchers.anyString(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
         BDDMockito.when(repository.save(createAnimeToBeSaved()))
                 .thenReturn(Mono.just(anime));
 
         BDDMockito.when(repository
-                        .saveAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
+                        .insertAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
                         .thenReturn(Flux.just(anime, anime));
 
-        BDDMockito.when(repository.delete(ArgumentMatchers.any(Anime.class)))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(1));
 
-        BDDMockito.when(repository.save(createValidAnime()))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(Mono.just(1));
     }
 
     @Test
@@ -143,6 +165,113 @@ public class AnimeControllerIntegrationTest {
                 .contains(anime);
     }
 
+    @Test
+    @DisplayName("listAll answers a matching If-None-Match with 304 without reading the list")
+    public void listAll_ReturnsNotModified_WhenETagMatches() {
+        String etag = testAdmin
+                .get()
+                .uri("/anime")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"1-7\"")
+                .returnResult(Anime.class)
+                .getResponseHeaders()
+                .getETag();
+        BDDMockito.when(repository.findCollectionVersion())
+                .thenReturn(Mono.just(new AnimeCollectionVersion(0, 0)));
+        testAdmin
+                .get()
+                .uri("/anime")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"0-0\"");
+
+        BDDMockito.when(repository.findCollectionVersion())
+                .thenReturn(Mono.just(new AnimeCollectionVersion(1, 7)));
+        testAdmin
+                .get()
+                .uri("/anime")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+        BDDMockito.verify(repository, BDDMockito.times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("listAll streams anime as ndjson when user is successfully authenticated and has role ADMIN")
+    public void streamAll_ReturnsNdjsonOfAnime_WhenSuccessful() {
+        testAdmin
+                .get()
+                .uri("/anime")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("listPage returns forbidden when user is successfully authenticated and does not have role ADMIN")
+    public void listPage_ReturnForbidden_WhenUserDoesNotHaveRoleAdmin() {
+        testUser
+                .get()
+                .uri("/anime?after={after}&limit={limit}", 0, 10)
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+
+    @Test
+    @DisplayName("listPage returns a page of anime when user is successfully authenticated and has role ADMIN")
+    public void listPage_ReturnsFluxOfAnime_WhenSuccessful() {
+        testAdmin
+                .get()
+                .uri("/anime?after={after}&limit={limit}", 0, 10)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("search returns the matching anime when user is successfully authenticated and has role USER")
+    public void search_ReturnsFluxOfAnime_WhenSuccessful() {
+        testUser
+                .get()
+                .uri("/anime/search?q={q}&limit={limit}", "Tensei", 10)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("search returns bad request when the substring query is too short")
+    public void search_ReturnsBadRequest_WhenQueryIsTooShort() {
+        testUser
+                .get()
+                .uri("/anime/search?q={q}", "Te")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     @DisplayName("findById returns a mono with of anime when it exists and user is successfully authenticated and has role USER")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
@@ -156,6 +285,111 @@ public class AnimeControllerIntegrationTest {
                 .isEqualTo(anime);
     }
 
+    @Test
+    @DisplayName("save with an existing id renames the anime with a new version, so the old ETag no longer matches")
+    public void save_RenamesAnimeWithNewVersion_WhenBodyCarriesId() {
+        Anime versioned = createVersionedAnime();
+        Anime renamed = versioned.withName("Renamed").withVersion(8L).withUpdatedAt(versioned.getUpdatedAt().plusSeconds(60));
+        BDDMockito.when(repository.findById(1L))
+                .thenReturn(Mono.just(versioned), Mono.just(renamed));
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .exchange()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"7\"");
+
+        testAdmin
+                .post()
+                .uri("/anime")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(new Anime(1L, "Renamed")))
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .ifNoneMatch("\"7\"")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"8\"")
+                .expectBody(Anime.class)
+                .isEqualTo(new Anime(1L, "Renamed"));
+        BDDMockito.verify(repository).updateName(1L, "Renamed");
+        BDDMockito.verify(repository, BDDMockito.never()).save(ArgumentMatchers.any(Anime.class));
+    }
+
+    @Test
+    @DisplayName("findById answers If-None-Match and If-Modified-Since with 304 while the anime is unchanged")
+    public void findById_ReturnsNotModified_WhenValidatorsMatch() {
+        Anime versioned = createVersionedAnime();
+        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(versioned));
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"7\"")
+                .expectHeader()
+                .lastModified(versioned.getUpdatedAt().toEpochMilli())
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .ifNoneMatch("\"7\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .ifModifiedSince(versioned.getUpdatedAt().atZone(ZoneOffset.UTC))
+                .exchange()
+                .expectStatus()
+                .isNotModified();
+        testUser
+                .get()
+                .uri("/anime/{id}", 1)
+                .ifNoneMatch("\"6\"")
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    @DisplayName("findById accepts a bearer token issued for Basic credentials")
+    public void findById_ReturnMonoAnime_WhenBearerTokenIsValid() {
+        TokenResponse token = testUser
+                .post()
+                .uri("/auth/token")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClientUtil.bearerClient(token.getAccessToken())
+                .get()
+                .uri("/anime/{id}", 1)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+    }
+
     @Test
     @DisplayName("findById returns mono error when anime does not exists  and user is successfully authenticated and has role USER")
     public void findById_ReturnMonoError_WhenEmptyMonoReturned() {
@@ -174,6 +408,36 @@ public class AnimeControllerIntegrationTest {
                 .isEqualTo("A ResponseStatusException Happened");
     }
 
+    @Test
+    @DisplayName("findAllById returns the found anime and the missing ids when user is successfully authenticated " +
+            "and has role USER")
+    public void findAllById_ReturnsBulkFetchResult_WhenSuccessful() {
+        BDDMockito.when(repository.findAllByIds(ArgumentMatchers.any(Long[].class)))
+                .thenReturn(Flux.just(anime));
+        testUser
+                .get()
+                .uri("/anime?ids={ids}", "1,2")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.found[0].id")
+                .isEqualTo(anime.getId())
+                .jsonPath("$.missing[0]")
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("findAllById returns bad request when an id in the list is empty")
+    public void findAllById_ReturnsBadRequest_WhenIdIsEmpty() {
+        testUser
+                .get()
+                .uri("/anime?ids={ids}", "1,,2")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     @DisplayName("save create an anime when successful and user is successfully authenticated and has role ADMIN")
     public void save_CreateAnime_WhenSuccessful() {
@@ -212,20 +476,60 @@ public class AnimeControllerIntegrationTest {
             "name and user is successfully authenticated and has role ADMIN")
     public void saveBatch_ReturnsMonoError_WhenContainsInvalidName() {
         Anime animeToBeSaved = createAnimeToBeSaved();
-        BDDMockito.when(repository
-                        .saveAll(ArgumentMatchers.anyIterable()))
-                        .thenReturn(Flux.just(anime, anime.withName("")));
         testAdmin
                 .post()
                 .uri("/anime/batch")
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(BodyInserters.fromValue(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .body(BodyInserters.fromValue(Arrays.asList(animeToBeSaved, animeToBeSaved.withName(""))))
                 .exchange()
                 .expectStatus()
                 .isBadRequest()
                 .expectBody()
                 .jsonPath("$.status")
                 .isEqualTo(400);
+        BDDMockito.verify(repository, BDDMockito.never()).insertAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("saveBatch in upsert mode returns one anime per distinct name when " +
+            "user is successfully authenticated and has role ADMIN")
+    public void saveBatchUpsert_ReturnsDistinctAnime_WhenSuccessful() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        BDDMockito.when(repository.upsertAll(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+        testAdmin
+                .post()
+                .uri("/anime/batch?mode=upsert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Anime.class)
+                .hasSize(1)
+                .contains(anime);
+    }
+
+    @Test
+    @DisplayName("saveBatch in partial mode saves the valid objects and reports the invalid ones when " +
+            "user is successfully authenticated and has role ADMIN")
+    public void saveBatchPartial_ReturnsBatchSaveResult_WhenContainsInvalidName() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        BDDMockito.when(repository.insertAllSkippingConflicts(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+        testAdmin
+                .post()
+                .uri("/anime/batch?mode=partial")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(animeToBeSaved, animeToBeSaved.withName(""))))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.MULTI_STATUS)
+                .expectBody()
+                .jsonPath("$.saved[0].id")
+                .isEqualTo(anime.getId())
+                .jsonPath("$.errors[0].index")
+                .isEqualTo(1);
     }
 
     @Test
@@ -261,8 +565,8 @@ public class AnimeControllerIntegrationTest {
     @DisplayName("delete returns Mono error when anime does not exist and " +
             "user is successfully authenticated and has role ADMIN")
     public void delete_ReturnMonoError_WhenEmptyMonoIsReturned() {
-        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(0));
         testAdmin
                 .delete()
                 .uri("/anime/{id}", 1)
@@ -276,6 +580,49 @@ public class AnimeControllerIntegrationTest {
                 .isEqualTo("A ResponseStatusException Happened");
     }
 
+    @Test
+    @DisplayName("batchDelete removes the listed anime when user is successfully authenticated and has role ADMIN")
+    public void batchDelete_ReturnsDeletedCount_WhenSuccessful() {
+        BDDMockito.when(repository.removeAllByIds(ArgumentMatchers.any(Long[].class)))
+                .thenReturn(Mono.just(2));
+        testAdmin
+                .method(HttpMethod.DELETE)
+                .uri("/anime/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(1L, 2L)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.deleted")
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("batchDelete returns bad request without deleting anything when the list contains null")
+    public void batchDelete_ReturnsBadRequest_WhenIdIsNull() {
+        testAdmin
+                .method(HttpMethod.DELETE)
+                .uri("/anime/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue("[1, null]"))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+        BDDMockito.verify(repository, BDDMockito.never()).removeAllByIds(ArgumentMatchers.any(Long[].class));
+    }
+
+    @Test
+    @DisplayName("deleteByNamePrefix returns forbidden when user is successfully authenticated and does not have role ADMIN")
+    public void deleteByNamePrefix_ReturnForbidden_WhenUserDoesNotHaveRoleAdmin() {
+        testUser
+                .delete()
+                .uri("/anime?namePrefix={prefix}", "Fantastic")
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+
     @Test
     @DisplayName("update save updated anime and returns empty mono when successful and " +
             "user is successfully authenticated and has role ADMIN")
@@ -294,8 +641,8 @@ public class AnimeControllerIntegrationTest {
     @DisplayName("update returns Mono error when anime does not exist and " +
             "user is successfully authenticated and has role ADMIN")
     public void update_ReturnedMonoError_WhenEmptyMonoIsReturned() {
-        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(Mono.just(0));
         testAdmin
                 .put()
                 .uri("/anime/{id}", 1)
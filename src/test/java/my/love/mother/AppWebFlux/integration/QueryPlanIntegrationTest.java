@@ -0,0 +1,127 @@
+package my.love.mother.AppWebFlux.integration;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import my.love.mother.AppWebFlux.repository.AnimeRepository;
+import my.love.mother.AppWebFlux.repository.UserRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.r2dbc.repository.Query;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN for every repository query against the migrated schema and fails when one of them needs a
+ * sequential scan. Sequential scans are disabled for the check, so a tiny table cannot hide a missing index:
+ * the planner only falls back to one when no index can serve the query. {@code findAll} is a full read by design
+ * and is not checked.
+ */
+@SpringBootTest
+public class QueryPlanIntegrationTest {
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+    private static final Map<String, Map<String, String>> SAMPLE_ARGUMENTS = new HashMap<>();
+    private static final Map<String, String> DERIVED_QUERIES = new HashMap<>();
+
+    static {
+        SAMPLE_ARGUMENTS.put("AnimeRepository.findPageAfter", arguments("after", "0", "limit", "100"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.findChangedAfter", arguments("after", "0", "limit", "100"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.searchByName", arguments("pattern", "'%naru%'", "after", "0", "limit", "100"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.findAllByIds", arguments("ids", "ARRAY[1, 2, 3]::bigint[]"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.findCollectionVersion", arguments());
+        SAMPLE_ARGUMENTS.put("AnimeRepository.updateName", arguments("id", "1", "name", "'Naruto'"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.removeById", arguments("id", "1"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.removeAllByIds", arguments("ids", "ARRAY[1, 2, 3]::bigint[]"));
+        SAMPLE_ARGUMENTS.put("AnimeRepository.removeAllByNameLike", arguments("pattern", "'Naru%'"));
+
+        DERIVED_QUERIES.put("AnimeRepository.findById", "SELECT anime.* FROM anime WHERE anime.id = 1 LIMIT 2");
+        DERIVED_QUERIES.put("UserRepository.findByUsername", "SELECT usr.* FROM usr WHERE usr.username = 'admin' LIMIT 2");
+    }
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @BeforeAll
+    public static void BlockHoundSetUp() {
+        BlockHound.install();
+    }
+
+    static List<Arguments> queries() {
+        List<Arguments> queries = new ArrayList<>();
+        for (Class<?> repository : Arrays.asList(AnimeRepository.class, UserRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Query.class))
+                    .sorted(Comparator.comparing(Method::getName))
+                    .forEach(method -> {
+                        String name = repository.getSimpleName() + "." + method.getName();
+                        queries.add(Arguments.of(name, bind(name, method.getAnnotation(Query.class).value())));
+                    });
+        }
+        DERIVED_QUERIES.forEach((name, sql) -> queries.add(Arguments.of(name, sql)));
+        return queries;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    @DisplayName("repository queries are served by an index")
+    public void explain_UsesIndex_ForRepositoryQuery(String name, String sql) {
+        List<String> plan = explain(sql);
+
+        Assertions.assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")),
+                () -> name + " falls back to a sequential scan:\n" + String.join("\n", plan));
+    }
+
+    private List<String> explain(String sql) {
+        return Mono.usingWhen(Mono.from(connectionFactory.create()),
+                        connection -> Mono.from(connection.beginTransaction())
+                                .thenMany(execute(connection, "SET LOCAL enable_seqscan = off")
+                                        .concatMap(Result::getRowsUpdated))
+                                .thenMany(execute(connection, "EXPLAIN " + sql)
+                                        .concatMap(result -> result.map((row, metadata) -> row.get(0, String.class))))
+                                .collectList()
+                                .flatMap(plan -> Mono.from(connection.rollbackTransaction()).thenReturn(plan)),
+                        Connection::close)
+                .block();
+    }
+
+    private static Flux<? extends Result> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute());
+    }
+
+    private static String bind(String name, String sql) {
+        Map<String, String> arguments = SAMPLE_ARGUMENTS.get(name);
+        Assertions.assertNotNull(arguments, "add sample arguments for " + name + " to " + QueryPlanIntegrationTest.class.getSimpleName());
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        StringBuffer bound = new StringBuffer();
+        while (matcher.find()) {
+            String value = arguments.get(matcher.group(1));
+            Assertions.assertNotNull(value, "no sample value for :" + matcher.group(1) + " in " + name);
+            matcher.appendReplacement(bound, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(bound);
+        return bound.toString();
+    }
+
+    private static Map<String, String> arguments(String... namesAndValues) {
+        Map<String, String> arguments = new HashMap<>();
+        for (int index = 0; index < namesAndValues.length; index += 2) {
+            arguments.put(namesAndValues[index], namesAndValues[index + 1]);
+        }
+        return arguments;
+    }
+}
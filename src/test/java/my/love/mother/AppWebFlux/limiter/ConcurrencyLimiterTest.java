@@ -0,0 +1,78 @@
+package my.love.mother.AppWebFlux.limiter;
+
+import my.love.mother.AppWebFlux.config.LimiterProperties;
+import my.love.mother.AppWebFlux.exceptions.OverloadedException;
+import org.junit.jupiter.api.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class ConcurrencyLimiterTest {
+    @Test
+    @DisplayName("calls above the limit are shed with 503 and Retry-After until a permit is released")
+    public void limit_ShedsExcessCalls_WhenLimitIsReached() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("read",
+                new GradientLimit(new LimiterProperties.Limit(1, 1, 1)), Duration.ofSeconds(2));
+        Sinks.One<String> pending = Sinks.one();
+
+        StepVerifier.create(limiter.limit(pending.asMono()))
+                .then(() -> StepVerifier.create(limiter.limit(Mono.just("shed")))
+                        .expectErrorSatisfies(error -> {
+                            Assertions.assertTrue(error instanceof OverloadedException);
+                            OverloadedException overloaded = (OverloadedException) error;
+                            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, overloaded.getStatus());
+                            Assertions.assertEquals("2", overloaded.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                        })
+                        .verify())
+                .then(() -> pending.tryEmitValue("done"))
+                .expectNext("done")
+                .verifyComplete();
+
+        StepVerifier.create(limiter.limit(Flux.just("a", "b")))
+                .expectNext("a", "b")
+                .verifyComplete();
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertEquals(2, limiter.getAcceptedCount());
+        Assertions.assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("the limit grows while latency is stable and shrinks when it rises")
+    public void onSample_FollowsLatencyGradient() {
+        GradientLimit limit = new GradientLimit(new LimiterProperties.Limit(20, 4, 100));
+        for (int sample = 0; sample < 50; sample++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(5), limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        Assertions.assertTrue(grown > 20, "limit should grow, was " + grown);
+
+        for (int sample = 0; sample < 50; sample++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), limit.getLimit(), false);
+        }
+        Assertions.assertTrue(limit.getLimit() < grown, "limit should shrink, was " + limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("an under-used limit does not grow and dropped calls back it off down to the minimum")
+    public void onSample_BacksOffOnDrops_AndIgnoresIdleSamples() {
+        GradientLimit limit = new GradientLimit(new LimiterProperties.Limit(20, 4, 100));
+        for (int sample = 0; sample < 50; sample++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(5), 1, false);
+        }
+        Assertions.assertEquals(20, limit.getLimit());
+
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("write", limit, Duration.ofSeconds(1));
+        for (int call = 0; call < 50; call++) {
+            StepVerifier.create(limiter.limit(Mono.error(new DataAccessResourceFailureException("pool exhausted"))))
+                    .verifyError(DataAccessResourceFailureException.class);
+        }
+        Assertions.assertEquals(4, limit.getLimit());
+    }
+}
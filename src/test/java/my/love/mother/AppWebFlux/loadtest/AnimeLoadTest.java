@@ -0,0 +1,254 @@
+package my.love.mother.AppWebFlux.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.extern.slf4j.Slf4j;
+import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.Role;
+import my.love.mother.AppWebFlux.domain.User;
+import my.love.mother.AppWebFlux.repository.UserRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.LoopResources;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the whole application against in-memory H2 (PostgreSQL mode, Flyway applied) and drives a mix of
+ * reads, single inserts and batch inserts through a Reactor Netty client. Run with {@code mvn -Pload-test test};
+ * tune with {@code -Dloadtest.requests}, {@code -Dloadtest.concurrency}, {@code -Dloadtest.mix=reads,writes,batches}
+ * and {@code -Dloadtest.batch-size}. The report is logged and written to {@code target/load-test-result.json}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class AnimeLoadTest {
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.requests:20000}")
+    private int requests;
+
+    @Value("${loadtest.warmup-requests:2000}")
+    private int warmupRequests;
+
+    @Value("${loadtest.concurrency:64}")
+    private int concurrency;
+
+    @Value("${loadtest.mix:90,8,2}")
+    private String mix;
+
+    @Value("${loadtest.batch-size:50}")
+    private int batchSize;
+
+    @Value("${loadtest.seed:1000}")
+    private int seed;
+
+    private final AtomicLong nameSequence = new AtomicLong();
+    private final LoopResources clientLoops = LoopResources.create("load-client");
+    private HttpClient client;
+    private List<Long> ids;
+    private int[] weights;
+
+    @BeforeAll
+    public static void blockHoundSetUp() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.save(new User(null, "Load Test", USERNAME,
+                PasswordEncoderFactories.createDelegatingPasswordEncoder().encode(PASSWORD), Role.ROLE_ADMIN)).block();
+        HttpClient baseClient = HttpClient.create()
+                .runOn(clientLoops)
+                .baseUrl("http://localhost:" + port);
+        String token = baseClient
+                .headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                        .encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8))))
+                .post()
+                .uri("/auth/token")
+                .responseSingle((response, body) -> body.asString())
+                .map(json -> readTree(json).get("accessToken").asText())
+                .block();
+        client = baseClient.headers(headers -> headers
+                .set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token)
+                .set(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+        ids = Flux.range(0, (seed + batchSize - 1) / batchSize)
+                .concatMap(chunk -> post("/anime/batch", newAnime(batchSize))
+                        .flatMapIterable(json -> readTree(json).findValues("id")))
+                .map(JsonNode::asLong)
+                .collectList()
+                .block();
+        weights = parseMix(mix);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clientLoops.dispose();
+    }
+
+    @Test
+    @DisplayName("reports latency percentiles and throughput for a mixed read/write/batch workload")
+    public void run() throws Exception {
+        drive(warmupRequests);
+        Map<String, Object> report = drive(requests);
+        log.info("load test: {}", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File("target/load-test-result.json"), report);
+        Assertions.assertEquals(0L, report.get("errors"));
+    }
+
+    private Map<String, Object> drive(int count) {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        histograms.put("read", new ConcurrentHistogram(3));
+        histograms.put("write", new ConcurrentHistogram(3));
+        histograms.put("batch", new ConcurrentHistogram(3));
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, count)
+                .flatMap(index -> {
+                    String operation = nextOperation();
+                    long operationStart = System.nanoTime();
+                    return execute(operation)
+                            .onErrorReturn(599)
+                            .doOnNext(status -> {
+                                histograms.get(operation).recordValue(
+                                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - operationStart));
+                                if (status >= 300) {
+                                    errors.incrementAndGet();
+                                }
+                            });
+                }, concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Histogram total = new Histogram(3);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        histograms.forEach((operation, histogram) -> {
+            total.add(histogram);
+            if (histogram.getTotalCount() > 0) {
+                operations.put(operation, summarize(histogram, seconds));
+            }
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count);
+        report.put("concurrency", concurrency);
+        report.put("mix", mix);
+        report.put("batchSize", batchSize);
+        report.put("seconds", seconds);
+        report.put("errors", errors.get());
+        report.put("total", summarize(total, seconds));
+        report.put("operations", operations);
+        return report;
+    }
+
+    private Map<String, Object> summarize(Histogram histogram, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("requestsPerSecond", histogram.getTotalCount() / seconds);
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    private String nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(weights[0] + weights[1] + weights[2]);
+        if (roll < weights[0]) {
+            return "read";
+        }
+        return roll < weights[0] + weights[1] ? "write" : "batch";
+    }
+
+    private Mono<Integer> execute(String operation) {
+        switch (operation) {
+            case "read":
+                return client.get()
+                        .uri("/anime/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())))
+                        .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+            case "write":
+                return status("/anime", newAnime(1).get(0));
+            default:
+                return status("/anime/batch", newAnime(batchSize));
+        }
+    }
+
+    private Mono<Integer> status(String uri, Object body) {
+        return client.post()
+                .uri(uri)
+                .send(ByteBufFlux.fromString(Mono.just(writeValue(body))))
+                .responseSingle((response, content) -> content.then(Mono.just(response.status().code())));
+    }
+
+    private Mono<String> post(String uri, Object body) {
+        return client.post()
+                .uri(uri)
+                .send(ByteBufFlux.fromString(Mono.just(writeValue(body))))
+                .responseSingle((response, content) -> content.asString());
+    }
+
+    private List<Anime> newAnime(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> new Anime(null, "load-" + nameSequence.incrementAndGet()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(",");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("loadtest.mix must be reads,writes,batches but was " + mix);
+        }
+        return new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim())};
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("unexpected response: " + json, e);
+        }
+    }
+
+    private String writeValue(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
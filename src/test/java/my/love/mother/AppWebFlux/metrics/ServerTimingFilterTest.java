@@ -0,0 +1,55 @@
+package my.love.mother.AppWebFlux.metrics;
+
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+class ServerTimingFilterTest {
+    private final ObservabilityProperties properties = new ObservabilityProperties();
+    private final ServerTimingFilter filter = new ServerTimingFilter(properties);
+    private final AuthenticatedTimingFilter authenticatedFilter = new AuthenticatedTimingFilter();
+
+    private final WebFilterChain handler = exchange -> authenticatedFilter.filter(exchange, authenticated ->
+            RequestTimings.phase("db", "findById", Mono.delay(Duration.ofMillis(5)))
+                    .then(authenticated.getResponse().setComplete()));
+
+    @BeforeAll
+    public static void BlockHoundSetUp() {
+        BlockHound.install();
+    }
+
+    @Test
+    @DisplayName("sampled requests get a Server-Timing header with every phase")
+    public void filter_AddsServerTiming_WhenSampled() {
+        properties.setTimingSampleRate(1.0);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+
+        StepVerifier.create(filter.filter(exchange, handler))
+                .verifyComplete();
+
+        String serverTiming = exchange.getResponse().getHeaders().getFirst(ServerTimingFilter.SERVER_TIMING);
+        Assertions.assertNotNull(serverTiming);
+        Assertions.assertTrue(serverTiming.startsWith("auth;dur="));
+        Assertions.assertTrue(serverTiming.contains("db;desc=\"findById\";dur="));
+        Assertions.assertTrue(serverTiming.contains("encode;dur="));
+        Assertions.assertTrue(serverTiming.contains("total;dur="));
+    }
+
+    @Test
+    @DisplayName("requests that are not sampled are left untouched")
+    public void filter_DoesNotAddServerTiming_WhenNotSampled() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+
+        StepVerifier.create(filter.filter(exchange, handler))
+                .verifyComplete();
+
+        Assertions.assertFalse(exchange.getResponse().getHeaders().containsKey(ServerTimingFilter.SERVER_TIMING));
+    }
+}
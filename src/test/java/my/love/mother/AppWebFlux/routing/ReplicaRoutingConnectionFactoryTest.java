@@ -0,0 +1,156 @@
+package my.love.mother.AppWebFlux.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.h2.H2ConnectionOption;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Result;
+import my.love.mother.AppWebFlux.config.ReplicaProperties;
+import org.junit.jupiter.api.*;
+import org.reactivestreams.Publisher;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+class ReplicaRoutingConnectionFactoryTest {
+    private final ReplicaProperties properties = new ReplicaProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRoutingConnectionFactory routing;
+
+    @BeforeAll
+    public static void BlockHoundSetUp() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        properties.setHealthCheckInterval(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (routing != null) {
+            routing.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("read-only work goes to the replica and everything else to the primary")
+    public void create_RoutesReadsToReplica_AndWritesToPrimary() {
+        routing = routing(database("primary"), database("replica"));
+
+        StepVerifier.create(Routing.readOnly(server()))
+                .expectNext("replica")
+                .verifyComplete();
+        StepVerifier.create(server())
+                .expectNext("primary")
+                .verifyComplete();
+        Assertions.assertEquals(1.0, registry.get("r2dbc.route").tag("target", "replica").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("r2dbc.route").tag("target", "primary").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("a principal that just wrote reads its own writes from the primary")
+    public void create_ReadsFromPrimary_AfterRecentWrite() {
+        routing = routing(database("primary"), database("replica"));
+        TestingAuthenticationToken admin = new TestingAuthenticationToken("admin", "admin");
+        TestingAuthenticationToken user = new TestingAuthenticationToken("user", "user");
+
+        StepVerifier.create(server().contextWrite(ReactiveSecurityContextHolder.withAuthentication(admin)))
+                .expectNext("primary")
+                .verifyComplete();
+        StepVerifier.create(Routing.readOnly(server()).contextWrite(ReactiveSecurityContextHolder.withAuthentication(admin)))
+                .expectNext("primary")
+                .verifyComplete();
+        StepVerifier.create(Routing.readOnly(server()).contextWrite(ReactiveSecurityContextHolder.withAuthentication(user)))
+                .expectNext("replica")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("reads fall back to the primary when the replica is down")
+    public void create_FallsBackToPrimary_WhenReplicaIsDown() {
+        routing = routing(database("primary"), new UnavailableConnectionFactory());
+
+        StepVerifier.create(Routing.readOnly(server()))
+                .expectNext("primary")
+                .verifyComplete();
+        Assertions.assertEquals(0.0, registry.get("r2dbc.replica.healthy").gauge().value());
+    }
+
+    @Test
+    @DisplayName("reads sharing a sameTarget modifier stay on the replica the first of them was routed to")
+    public void create_KeepsReplica_WhenTargetIsPinned() {
+        routing = routing(database("primary"), database("replica-a"), database("replica-b"));
+
+        StepVerifier.create(Routing.readOnly(Flux.concat(server(), server())))
+                .expectNext("replica-a", "replica-b")
+                .verifyComplete();
+        Function<Context, Context> sameTarget = Routing.sameTarget();
+        StepVerifier.create(Routing.readOnly(server().contextWrite(sameTarget)))
+                .expectNext("replica-a")
+                .verifyComplete();
+        StepVerifier.create(Routing.readOnly(Flux.concat(server(), server()).contextWrite(sameTarget)))
+                .expectNext("replica-a", "replica-a")
+                .verifyComplete();
+    }
+
+    private ReplicaRoutingConnectionFactory routing(ConnectionFactory primary, ConnectionFactory... replicas) {
+        Map<String, ConnectionFactory> replicasByName = new LinkedHashMap<>();
+        for (int index = 0; index < replicas.length; index++) {
+            replicasByName.put("replica-" + (index + 1), replicas[index]);
+        }
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicasByName, properties);
+        routing.registerMetrics(registry);
+        return routing;
+    }
+
+    private Mono<String> server() {
+        return Mono.usingWhen(routing.create(),
+                connection -> Mono.from(connection.createStatement("SELECT name FROM server").execute())
+                        .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get("name", String.class)))),
+                Connection::close);
+    }
+
+    private static ConnectionFactory database(String name) {
+        ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .inMemory(name + "-" + UUID.randomUUID())
+                .property(H2ConnectionOption.DB_CLOSE_DELAY, "-1")
+                .build());
+        Mono.usingWhen(Mono.from(connectionFactory.create()),
+                        connection -> Flux.from(connection.createBatch()
+                                        .add("CREATE TABLE server (name VARCHAR(32))")
+                                        .add("INSERT INTO server VALUES ('" + name + "')")
+                                        .execute())
+                                .concatMap(Result::getRowsUpdated)
+                                .then(),
+                        Connection::close)
+                .block();
+        return connectionFactory;
+    }
+
+    private static class UnavailableConnectionFactory implements ConnectionFactory {
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.error(new IllegalStateException("replica is down"));
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return () -> "unavailable";
+        }
+    }
+}
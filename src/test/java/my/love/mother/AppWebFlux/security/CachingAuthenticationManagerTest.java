@@ -0,0 +1,76 @@
+package my.love.mother.AppWebFlux.security;
+
+import my.love.mother.AppWebFlux.cache.UserCache;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+class CachingAuthenticationManagerTest {
+    @Mock
+    private ReactiveAuthenticationManager delegate;
+
+    private final UserCache userCache = new UserCache(new AuthProperties());
+
+    private final Authentication authenticated = new UsernamePasswordAuthenticationToken(
+            "Nata", "{bcrypt}hash", AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+
+    private CachingAuthenticationManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new CachingAuthenticationManager(delegate, userCache);
+        BDDMockito.when(delegate.authenticate(ArgumentMatchers.any()))
+                .thenReturn(Mono.just(authenticated));
+    }
+
+    private Authentication login(String password) {
+        return new UsernamePasswordAuthenticationToken("Nata", password);
+    }
+
+    @Test
+    @DisplayName("authenticate verifies the credentials once and serves the next logins from the cache")
+    public void authenticate_VerifiesOnce_WhenSameCredentialsAreRepeated() {
+        StepVerifier.create(manager.authenticate(login("mama")).then(manager.authenticate(login("mama"))))
+                .expectNext(authenticated)
+                .verifyComplete();
+        BDDMockito.verify(delegate, BDDMockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate delegates when the password differs from the cached one")
+    public void authenticate_Delegates_WhenPasswordDiffers() {
+        StepVerifier.create(manager.authenticate(login("mama")))
+                .expectNext(authenticated)
+                .verifyComplete();
+        BDDMockito.when(delegate.authenticate(ArgumentMatchers.any()))
+                .thenReturn(Mono.error(new BadCredentialsException("Invalid Credentials")));
+        StepVerifier.create(manager.authenticate(login("papa")))
+                .expectError(BadCredentialsException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("authenticate delegates again after the user was evicted")
+    public void authenticate_Delegates_WhenUserWasEvicted() {
+        StepVerifier.create(manager.authenticate(login("mama")))
+                .expectNext(authenticated)
+                .verifyComplete();
+        userCache.evict("Nata");
+        StepVerifier.create(manager.authenticate(login("mama")))
+                .expectNext(authenticated)
+                .verifyComplete();
+        BDDMockito.verify(delegate, BDDMockito.times(2)).authenticate(ArgumentMatchers.any());
+    }
+}
@@ -0,0 +1,67 @@
+package my.love.mother.AppWebFlux.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import my.love.mother.AppWebFlux.exceptions.OverloadedException;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+
+class PasswordHashingExecutorTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor passwordHashing;
+
+    @BeforeEach
+    public void setUp() {
+        AuthProperties properties = new AuthProperties();
+        properties.getHashing().setThreads(1);
+        properties.getHashing().setQueueCapacity(1);
+        passwordHashing = new PasswordHashingExecutor(properties, registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashing.destroy();
+    }
+
+    @Test
+    @DisplayName("admit fails fast with 503 and Retry-After when the hashing queue is full")
+    public void admit_ReturnsOverloaded_WhenQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashing.getScheduler().schedule(() -> awaitQuietly(release));
+        passwordHashing.getScheduler().schedule(() -> awaitQuietly(release));
+
+        StepVerifier.create(passwordHashing.admit(authentication -> Mono.just(authentication))
+                        .authenticate(new UsernamePasswordAuthenticationToken("Nata", "mama")))
+                .expectErrorMatches(e -> e instanceof OverloadedException
+                        && ((OverloadedException) e).getStatus() == HttpStatus.SERVICE_UNAVAILABLE
+                        && "1".equals(((OverloadedException) e).getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)))
+                .verify();
+        release.countDown();
+
+        Assertions.assertEquals(1.0, registry.get("auth.password.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("password checks are timed")
+    public void passwordEncoder_RecordsHashLatency_WhenMatching() {
+        String encoded = passwordHashing.getPasswordEncoder().encode("mama");
+
+        Assertions.assertTrue(passwordHashing.getPasswordEncoder().matches("mama", encoded));
+        Assertions.assertEquals(1L, registry.get("auth.password.hash").timer().count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package my.love.mother.AppWebFlux.security;
+
+import my.love.mother.AppWebFlux.config.AuthProperties;
+import my.love.mother.AppWebFlux.domain.TokenResponse;
+import org.junit.jupiter.api.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import reactor.test.StepVerifier;
+
+import java.util.Base64;
+import java.util.Collections;
+
+class TokenServiceTest {
+    private static final String OLD_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String NEW_KEY = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final Authentication admin = new UsernamePasswordAuthenticationToken(
+            "Nata", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+
+    private AuthProperties properties(String activeKey) {
+        AuthProperties properties = new AuthProperties();
+        properties.getToken().getKeys().put("old", OLD_KEY);
+        properties.getToken().getKeys().put("new", NEW_KEY);
+        properties.getToken().setActiveKey(activeKey);
+        return properties;
+    }
+
+    private String issue(AuthProperties properties) {
+        TokenResponse response = new TokenService(new TokenKeys(properties), properties).issue(admin).block();
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals("Bearer", response.getTokenType());
+        return response.getAccessToken();
+    }
+
+    @Test
+    @DisplayName("issued token carries subject and roles")
+    public void issue_CarriesSubjectAndRoles_WhenDecoded() {
+        AuthProperties properties = properties("new");
+        KeyRotatingJwtDecoder decoder = new KeyRotatingJwtDecoder(new TokenKeys(properties));
+
+        StepVerifier.create(decoder.decode(issue(properties)))
+                .expectNextMatches(jwt -> "Nata".equals(jwt.getSubject())
+                        && jwt.getClaimAsStringList(TokenService.ROLES_CLAIM).contains("ROLE_ADMIN")
+                        && "new".equals(jwt.getHeaders().get("kid")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("tokens signed with the previous key stay valid after rotation")
+    public void decode_AcceptsPreviousKey_AfterRotation() {
+        String token = issue(properties("old"));
+        KeyRotatingJwtDecoder decoder = new KeyRotatingJwtDecoder(new TokenKeys(properties("new")));
+
+        StepVerifier.create(decoder.decode(token))
+                .expectNextMatches(jwt -> "Nata".equals(jwt.getSubject()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("tokens signed with a retired key are rejected")
+    public void decode_ReturnsError_WhenKeyIsRetired() {
+        String token = issue(properties("old"));
+        AuthProperties rotated = new AuthProperties();
+        rotated.getToken().setKeys(Collections.singletonMap("new", NEW_KEY));
+        KeyRotatingJwtDecoder decoder = new KeyRotatingJwtDecoder(new TokenKeys(rotated));
+
+        StepVerifier.create(decoder.decode(token))
+                .expectError(BadJwtException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("tampered tokens are rejected")
+    public void decode_ReturnsError_WhenTokenIsTampered() {
+        AuthProperties properties = properties("new");
+        String token = issue(properties);
+        KeyRotatingJwtDecoder decoder = new KeyRotatingJwtDecoder(new TokenKeys(properties));
+
+        StepVerifier.create(decoder.decode(token.substring(0, token.length() - 2) + "xx"))
+                .expectError(BadJwtException.class)
+                .verify();
+    }
+}
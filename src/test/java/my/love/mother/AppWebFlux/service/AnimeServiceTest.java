@@ -1,6 +1,20 @@
 package my.love.mother.AppWebFlux.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import my.love.mother.AppWebFlux.cache.AnimeCache;
+import my.love.mother.AppWebFlux.cache.AnimeCatalog;
+import my.love.mother.AppWebFlux.cache.AnimeJsonCache;
+import my.love.mother.AppWebFlux.cache.InFlightLookups;
+import my.love.mother.AppWebFlux.config.AnimeProperties;
+import my.love.mother.AppWebFlux.config.LimiterProperties;
+import my.love.mother.AppWebFlux.config.ObservabilityProperties;
 import my.love.mother.AppWebFlux.domain.Anime;
+import my.love.mother.AppWebFlux.domain.AnimeCollectionVersion;
+import my.love.mother.AppWebFlux.domain.BatchDeleteResult;
+import my.love.mother.AppWebFlux.domain.BatchItemError;
+import my.love.mother.AppWebFlux.domain.BulkFetchResult;
+import my.love.mother.AppWebFlux.limiter.RepositoryLimiters;
+import my.love.mother.AppWebFlux.metrics.ReactiveMetrics;
 import my.love.mother.AppWebFlux.repository.AnimeRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,21 +22,33 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.blockhound.BlockHound;
 import reactor.blockhound.BlockingOperationError;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createAnimeToBeSaved;
 import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidAnime;
+import static my.love.mother.AppWebFlux.util.AnimeCreator.createValidUpdatedAnime;
 
 @ExtendWith(SpringExtension.class)
 class AnimeServiceTest {
@@ -32,6 +58,32 @@ class AnimeServiceTest {
     @Mock
     private AnimeRepository repository;
 
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private AnimeCache animeCache = new AnimeCache(new AnimeProperties());
+
+    @Spy
+    private InFlightLookups inFlightLookups = new InFlightLookups();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ReactiveMetrics metrics = new ReactiveMetrics(meterRegistry, new ObservabilityProperties());
+
+    @Spy
+    private RepositoryLimiters limiters = new RepositoryLimiters(new LimiterProperties());
+
+    @Mock
+    private AnimeCatalog animeCatalog;
+
+    @Spy
+    private AnimeJsonCache jsonCache = new AnimeJsonCache(new AnimeProperties());
+
     private final Anime anime = createValidAnime();
 
     @BeforeAll
@@ -47,18 +99,24 @@ class AnimeServiceTest {
         BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
                 .thenReturn(Mono.just(anime));
 
+        BDDMockito.when(repository.findPageAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito.when(repository.searchByName(ArgumentMatchers.anyString(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
         BDDMockito.when(repository.save(createAnimeToBeSaved()))
                 .thenReturn(Mono.just(anime));
 
         BDDMockito.when(repository
-                        .saveAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
+                        .insertAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved())))
                         .thenReturn(Flux.just(anime, anime));
 
-        BDDMockito.when(repository.delete(ArgumentMatchers.any(Anime.class)))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(1));
 
-        BDDMockito.when(repository.save(createValidAnime()))
-                .thenReturn(Mono.empty());
+        BDDMockito.when(repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                .thenReturn(Mono.just(1));
     }
 
     @Test
@@ -85,6 +143,132 @@ class AnimeServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("findAll and findById are served by the catalog without touching the repository once it is loaded")
+    public void findAll_ReadsCatalog_WhenCatalogIsServing() {
+        BDDMockito.when(animeCatalog.isServing()).thenReturn(true);
+        BDDMockito.when(animeCatalog.findAll()).thenReturn(Flux.just(anime));
+        BDDMockito.when(animeCatalog.findById(ArgumentMatchers.anyLong())).thenReturn(Mono.empty());
+        StepVerifier.create(animeService.findAll())
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        StepVerifier.create(animeService.findById(2L))
+                .expectSubscription()
+                .expectErrorMatches(error -> error instanceof ResponseStatusException
+                        && ((ResponseStatusException) error).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("findAllWithVersion reads the collection version before the list and only lists when asked to")
+    public void findAllWithVersion_ReadsVersionFirst_WhenSuccessful() {
+        BDDMockito.when(repository.findCollectionVersion())
+                .thenReturn(Mono.just(new AnimeCollectionVersion(1, 7)));
+        StepVerifier.create(animeService.findAllWithVersion((version, animeList) -> version))
+                .expectNext(new AnimeCollectionVersion(1, 7))
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.never()).findAll();
+
+        StepVerifier.create(animeService.findAllWithVersion((version, animeList) -> animeList).flatMapMany(Function.identity()))
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAllWithVersion passes no version while the catalog has entries of unknown version")
+    public void findAllWithVersion_PassesNoVersion_WhenCatalogVersionIsUnknown() {
+        BDDMockito.when(animeCatalog.isServing()).thenReturn(true);
+        BDDMockito.when(animeCatalog.findAll()).thenReturn(Flux.just(anime));
+        BDDMockito.when(animeCatalog.findCollectionVersion()).thenReturn(Mono.empty());
+        StepVerifier.create(animeService.findAllWithVersion((version, animeList) -> version == null))
+                .expectNext(true)
+                .verifyComplete();
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("findPage returns a flux of anime after the given id limited by the default page size")
+    public void findPage_ReturnsFluxOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeService.findPage(0L, null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository).findPageAfter(0L, animeProperties.getPage().getDefaultLimit());
+    }
+
+    @Test
+    @DisplayName("findPage caps the requested limit at the maximum page size")
+    public void findPage_CapsLimit_WhenLimitIsTooLarge() {
+        StepVerifier.create(animeService.findPage(0L, Integer.MAX_VALUE))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository).findPageAfter(0L, animeProperties.getPage().getMaxLimit());
+    }
+
+    @Test
+    @DisplayName("findPage returns flux error when limit is not positive")
+    public void findPage_ReturnFluxError_WhenLimitIsNotPositive() {
+        StepVerifier.create(animeService.findPage(0L, 0))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("streamAll walks every page until a short page is returned")
+    public void streamAll_ReturnsEveryPage_WhenSuccessful() {
+        animeProperties.getPage().setMaxLimit(1);
+        BDDMockito.when(repository.findPageAfter(anime.getId(), 1))
+                .thenReturn(Flux.empty());
+        StepVerifier.create(animeService.streamAll())
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search matches a substring and escapes LIKE wildcards in the query")
+    public void search_UsesEscapedSubstringPattern_WhenSuccessful() {
+        StepVerifier.create(animeService.search("50%_off", false, 0L, null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository).searchByName("%50\\%\\_off%", 0L, animeProperties.getPage().getDefaultLimit());
+    }
+
+    @Test
+    @DisplayName("search matches a prefix after the given id when prefix is set")
+    public void search_UsesPrefixPattern_WhenPrefixIsSet() {
+        StepVerifier.create(animeService.search("N", true, 10L, 5))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository).searchByName("N%", 10L, 5);
+    }
+
+    @Test
+    @DisplayName("search returns flux error when the substring query is too short")
+    public void search_ReturnFluxError_WhenSubstringQueryIsTooShort() {
+        StepVerifier.create(animeService.search("Na", false, 0L, null))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(repository, BDDMockito.never())
+                .searchByName(ArgumentMatchers.anyString(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("search returns flux error when the query is blank")
+    public void search_ReturnFluxError_WhenQueryIsBlank() {
+        StepVerifier.create(animeService.search("  ", true, 0L, null))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
     @Test
     @DisplayName("findById returns a mono with of anime when it exists")
     public void findById_ReturnMonoAnime_WhenSuccessful() {
@@ -105,6 +289,115 @@ class AnimeServiceTest {
                 .verify();
     }
 
+    @Test
+    @DisplayName("findById records its latency by outcome")
+    public void findById_RecordsTimer_WhenCompleted() {
+        StepVerifier.create(animeService.findById(1L))
+                .expectNext(anime)
+                .verifyComplete();
+        Assertions.assertEquals(1L, meterRegistry.get("anime.service")
+                .tag("method", "findById")
+                .tag("outcome", "success")
+                .timer()
+                .count());
+    }
+
+    @Test
+    @DisplayName("findById serves repeated lookups of the same anime from the cache")
+    public void findById_ReadsRepositoryOnce_WhenAnimeIsCached() {
+        StepVerifier.create(animeService.findById(1L).then(animeService.findById(1L)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("findAllById returns the anime in request order and reports the missing ids")
+    public void findAllById_ReturnsFoundAndMissing_WhenSomeIdsDoNotExist() {
+        Anime other = anime.withId(2L);
+        BDDMockito.when(repository.findAllByIds(ArgumentMatchers.any(Long[].class)))
+                .thenReturn(Flux.just(anime, other));
+        StepVerifier.create(animeService.findAllById(Arrays.asList(2L, 3L, 1L)))
+                .expectSubscription()
+                .expectNext(new BulkFetchResult(Arrays.asList(other, anime), Collections.singletonList(3L)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAllById only queries the ids that are not cached yet")
+    public void findAllById_QueriesUncachedIds_WhenSomeIdsAreCached() {
+        Anime other = anime.withId(2L);
+        BDDMockito.when(repository.findAllByIds(new Long[]{2L}))
+                .thenReturn(Flux.just(other));
+        StepVerifier.create(animeService.findById(1L)
+                        .then(animeService.findAllById(Arrays.asList(1L, 2L))))
+                .expectSubscription()
+                .expectNext(new BulkFetchResult(Arrays.asList(anime, other), Collections.emptyList()))
+                .verifyComplete();
+        BDDMockito.verify(repository).findAllByIds(new Long[]{2L});
+    }
+
+    @Test
+    @DisplayName("findAllById returns mono error when too many ids are requested")
+    public void findAllById_ReturnMonoError_WhenTooManyIdsAreRequested() {
+        animeProperties.getPage().setMaxLimit(1);
+        StepVerifier.create(animeService.findAllById(Arrays.asList(1L, 2L)))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("findAllById returns mono error when an id is empty")
+    public void findAllById_ReturnMonoError_WhenIdIsNull() {
+        StepVerifier.create(animeService.findAllById(Arrays.asList(1L, null, 2L)))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(repository, BDDMockito.never()).findAllByIds(ArgumentMatchers.any(Long[].class));
+    }
+
+    @Test
+    @DisplayName("update evicts the cached anime so the next lookup reads the repository")
+    public void update_EvictsCachedAnime_WhenSuccessful() {
+        StepVerifier.create(animeService.findById(1L)
+                        .then(animeService.update(createValidAnime()))
+                        .then(animeService.findById(1L)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.times(2)).findById(1L);
+        BDDMockito.verify(jsonCache).evict(1L);
+    }
+
+    @Test
+    @DisplayName("a lookup started after an update neither joins nor caches the load that was in flight before it")
+    public void findById_ReturnsUpdatedAnime_WhenUpdateLandsDuringSlowLoad() {
+        Sinks.One<Anime> slowLoad = Sinks.one();
+        Anime updated = createValidUpdatedAnime();
+        BDDMockito.when(repository.findById(1L))
+                .thenReturn(slowLoad.asMono(), Mono.just(updated));
+
+        StepVerifier before = StepVerifier.create(animeService.findById(1L))
+                .expectNext(anime)
+                .expectComplete()
+                .verifyLater();
+        StepVerifier.create(animeService.update(updated))
+                .verifyComplete();
+        StepVerifier.create(animeService.findById(1L))
+                .expectNext(updated)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        slowLoad.tryEmitValue(anime);
+        before.verify();
+
+        StepVerifier.create(animeService.findById(1L))
+                .expectNext(updated)
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.times(2)).findById(1L);
+    }
+
     @Test
     @DisplayName("save create an anime when successful")
     public void save_CreateAnime_WhenSuccessful() {
@@ -113,6 +406,41 @@ class AnimeServiceTest {
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
+        BDDMockito.verify(animeCatalog).upsert(anime);
+    }
+
+    @Test
+    @DisplayName("save returns mono error with conflict when the name is already taken")
+    public void save_ReturnMonoErrorConflict_WhenNameAlreadyExists() {
+        BDDMockito.when(repository.save(createAnimeToBeSaved()))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate key")));
+        StepVerifier.create(animeService.save(createAnimeToBeSaved()))
+                .expectSubscription()
+                .expectErrorMatches(error -> error instanceof ResponseStatusException
+                        && ((ResponseStatusException) error).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("upsertAll sends every distinct name once")
+    public void upsertAll_DeduplicatesByName_WhenListContainsDuplicates() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        BDDMockito.when(repository.upsertAll(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+        StepVerifier.create(animeService.upsertAll(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("upsertAll returns mono error before any write when one of the object empty or null name")
+    public void upsertAll_ReturnMonoError_WhenContainsInvalidName() {
+        StepVerifier.create(animeService.upsertAll(Arrays.asList(createAnimeToBeSaved(), createAnimeToBeSaved().withName(null))))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(repository, BDDMockito.never()).upsertAll(ArgumentMatchers.anyList());
     }
 
     @Test
@@ -126,17 +454,82 @@ class AnimeServiceTest {
     }
 
     @Test
-    @DisplayName("saveAll returns mono error one of the object empty or null name")
+    @DisplayName("saveAll splits the list into chunks of the configured size")
+    public void saveAll_InsertsInChunks_WhenListIsLargerThanChunkSize() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        animeProperties.getBatch().setChunkSize(1);
+        BDDMockito.when(repository.insertAll(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+        StepVerifier.create(animeService.saveAll(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime, anime)
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.times(2)).insertAll(Collections.singletonList(animeToBeSaved));
+        BDDMockito.verify(animeCatalog, BDDMockito.times(2)).upsertAll(Collections.singletonList(anime));
+    }
+
+    @Test
+    @DisplayName("saveAll asks the catalog to reconcile when a later chunk fails after an earlier one was applied")
+    public void saveAll_RequestsCatalogReconcile_WhenChunkFails() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        animeProperties.getBatch().setChunkSize(1);
+        BDDMockito.when(repository.insertAll(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime), Flux.error(new DataIntegrityViolationException("duplicate key")));
+        StepVerifier.create(animeService.saveAll(Arrays.asList(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(anime)
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(animeCatalog).requestReconcile();
+    }
+
+    @Test
+    @DisplayName("saveAll returns mono error before any insert when one of the object empty or null name")
     public void saveAll_ReturnMonoError_WhenContainsInvalidName() {
         Anime animeToBeSaved = createAnimeToBeSaved();
-        BDDMockito.when(repository
-                        .saveAll(ArgumentMatchers.anyIterable()))
-                        .thenReturn(Flux.just(anime, anime.withName("")));
         StepVerifier.create(animeService.saveAll(Arrays.asList(animeToBeSaved, animeToBeSaved.withName(""))))
                 .expectSubscription()
-                .expectNext(anime)
                 .expectError(ResponseStatusException.class)
                 .verify();
+        BDDMockito.verify(repository, BDDMockito.never()).insertAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("saveAllValid saves the valid anime and reports the invalid ones by index")
+    public void saveAllValid_SavesValidAnimeAndReportsErrors_WhenContainsInvalidName() {
+        Anime animeToBeSaved = createAnimeToBeSaved();
+        BDDMockito.when(repository.insertAllSkippingConflicts(Collections.singletonList(animeToBeSaved)))
+                .thenReturn(Flux.just(anime));
+        StepVerifier.create(animeService.saveAllValid(Arrays.asList(animeToBeSaved.withName(""), animeToBeSaved, null)))
+                .expectSubscription()
+                .assertNext(result -> {
+                    Assertions.assertEquals(Collections.singletonList(anime), result.getSaved());
+                    Assertions.assertEquals(Arrays.asList(0, 2), result.getErrors().stream()
+                            .map(BatchItemError::getIndex)
+                            .collect(Collectors.toList()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("saveAllValid reports the anime whose name is taken by index and saves the rest of the batch")
+    public void saveAllValid_ReportsNameConflictsByIndex_WhenBatchContainsDuplicateName() {
+        Anime naruto = createAnimeToBeSaved().withName("Naruto");
+        Anime taken = createAnimeToBeSaved();
+        List<Anime> batch = Arrays.asList(naruto, taken, naruto, naruto.withName(""));
+        BDDMockito.when(repository.insertAllSkippingConflicts(Arrays.asList(naruto, taken, naruto)))
+                .thenReturn(Flux.just(naruto.withId(2L)));
+        StepVerifier.create(animeService.saveAllValid(batch))
+                .expectSubscription()
+                .assertNext(result -> {
+                    Assertions.assertEquals(Collections.singletonList(naruto.withId(2L)), result.getSaved());
+                    Assertions.assertEquals(Arrays.asList(1, 2, 3), result.getErrors().stream()
+                            .map(BatchItemError::getIndex)
+                            .collect(Collectors.toList()));
+                    Assertions.assertEquals("anime with this name already exists", result.getErrors().get(0).getMessage());
+                })
+                .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.never()).insertAll(ArgumentMatchers.anyList());
     }
 
     @Test
@@ -145,17 +538,62 @@ class AnimeServiceTest {
         StepVerifier.create(animeService.delete(1L))
                 .expectSubscription()
                 .verifyComplete();
+        BDDMockito.verify(animeCatalog).remove(1L);
     }
 
     @Test
-    @DisplayName("delete returns mono error when anime does not exists")
-    public void delete_ReturnMonoError_WhenEmptyMonoIsReturned() {
-        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
-                .thenReturn(Mono.empty());
+    @DisplayName("delete returns mono error when no row is deleted")
+    public void delete_ReturnMonoError_WhenNoRowIsDeleted() {
+        BDDMockito.when(repository.removeById(ArgumentMatchers.anyLong()))
+                .thenReturn(Mono.just(0));
         StepVerifier.create(animeService.delete(1L))
                 .expectSubscription()
                 .expectError(ResponseStatusException.class)
                 .verify();
+        BDDMockito.verify(animeCatalog, BDDMockito.never()).remove(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("deleteAll removes every anime of the list with one statement and returns the count")
+    public void deleteAll_ReturnsDeletedCount_WhenSuccessful() {
+        BDDMockito.when(repository.removeAllByIds(new Long[]{1L, 2L}))
+                .thenReturn(Mono.just(2));
+        StepVerifier.create(animeService.deleteAll(Arrays.asList(1L, 2L)))
+                .expectSubscription()
+                .expectNext(new BatchDeleteResult(2))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("deleteAll returns mono error without deleting anything when an id is null")
+    public void deleteAll_ReturnMonoError_WhenIdIsNull() {
+        StepVerifier.create(animeService.deleteAll(Arrays.asList(1L, null)))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(repository, BDDMockito.never()).removeAllByIds(ArgumentMatchers.any(Long[].class));
+        BDDMockito.verify(animeCatalog, BDDMockito.never()).removeAll(ArgumentMatchers.anyCollection());
+    }
+
+    @Test
+    @DisplayName("deleteByNamePrefix escapes like wildcards in the prefix")
+    public void deleteByNamePrefix_EscapesWildcards_WhenSuccessful() {
+        BDDMockito.when(repository.removeAllByNameLike("50\\%\\_off%"))
+                .thenReturn(Mono.just(3));
+        StepVerifier.create(animeService.deleteByNamePrefix("50%_off"))
+                .expectSubscription()
+                .expectNext(new BatchDeleteResult(3))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("deleteByNamePrefix returns mono error when the prefix is empty")
+    public void deleteByNamePrefix_ReturnMonoError_WhenPrefixIsEmpty() {
+        StepVerifier.create(animeService.deleteByNamePrefix(""))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+        BDDMockito.verify(repository, BDDMockito.never()).removeAllByNameLike(ArgumentMatchers.anyString());
     }
 
     @Test
@@ -164,13 +602,14 @@ class AnimeServiceTest {
         StepVerifier.create(animeService.update(createValidAnime()))
                 .expectSubscription()
                 .verifyComplete();
+        BDDMockito.verify(repository, BDDMockito.never()).findById(ArgumentMatchers.anyLong());
     }
 
     @Test
-    @DisplayName("update return mono error when anime does not exists")
-    public void update_ReturnedMonoError_WhenEmptyMonoIsReturned() {
-        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong()))
-                        .thenReturn(Mono.empty());
+    @DisplayName("update return mono error when no row is updated")
+    public void update_ReturnedMonoError_WhenNoRowIsUpdated() {
+        BDDMockito.when(repository.updateName(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
+                        .thenReturn(Mono.just(0));
         StepVerifier.create(animeService.update(createValidAnime()))
                 .expectSubscription()
                 .expectError(ResponseStatusException.class)
@@ -2,6 +2,8 @@ package my.love.mother.AppWebFlux.util;
 
 import my.love.mother.AppWebFlux.domain.Anime;
 
+import java.time.Instant;
+
 public class AnimeCreator {
     public static Anime createAnimeToBeSaved() {
         return Anime.builder()
@@ -16,6 +18,12 @@ public class AnimeCreator {
                 .build();
     }
 
+    public static Anime createVersionedAnime() {
+        return createValidAnime()
+                .withVersion(7L)
+                .withUpdatedAt(Instant.parse("2022-08-01T10:15:30Z"));
+    }
+
     public static Anime createValidUpdatedAnime() {
         return Anime.builder()
                 .id(1L)
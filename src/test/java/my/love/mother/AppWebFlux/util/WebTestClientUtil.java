@@ -20,4 +20,13 @@ public class WebTestClientUtil {
                 .filter(ExchangeFilterFunctions.basicAuthentication(username, password))
                 .build();
     }
+
+    public WebTestClient bearerClient(String token) {
+        return WebTestClient
+                .bindToApplicationContext(context)
+                .apply(SecurityMockServerConfigurers.springSecurity())
+                .configureClient()
+                .defaultHeaders(headers -> headers.setBearerAuth(token))
+                .build();
+    }
 }